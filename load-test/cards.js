@@ -0,0 +1,90 @@
+// Load test for card registration and lookup, used to compare the platform- and virtual-thread modes.
+//
+//   k6 run load-test/cards.js
+//   k6 run -e RATE=800 -e DURATION=2m -e BASE_URL=http://localhost:8080 load-test/cards.js
+//
+// Run it once per mode (VIRTUAL_THREADS_ENABLED=false / true) against the same database and compare the
+// http_req_duration percentiles, the achieved rate and http_req_failed of both summaries.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '400');
+const DURATION = __ENV.DURATION || '1m';
+const SEARCH_CARDS = 200;
+
+export const options = {
+    scenarios: {
+        create: {
+            executor: 'constant-arrival-rate',
+            exec: 'create',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+        search: {
+            executor: 'constant-arrival-rate',
+            exec: 'search',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+    },
+    thresholds: {
+        'http_req_failed{scenario:create}': ['rate<0.01'],
+        'http_req_failed{scenario:search}': ['rate<0.01'],
+        'http_req_duration{scenario:create}': ['p(95)<500'],
+        'http_req_duration{scenario:search}': ['p(95)<500'],
+    },
+};
+
+// Valid 16-digit number: 15 random digits plus the Luhn check digit
+function luhnCard() {
+    let body = '4';
+    for (let i = 0; i < 14; i++) body += Math.floor(Math.random() * 10);
+    let sum = 0;
+    for (let i = body.length - 1, pos = 0; i >= 0; i--, pos++) {
+        let d = body.charCodeAt(i) - 48;
+        if (pos % 2 === 0) d *= 2;
+        sum += Math.floor(d / 10) + (d % 10);
+    }
+    return body + ((10 - (sum % 10)) % 10);
+}
+
+function jsonHeaders(token) {
+    return { headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${token}` } };
+}
+
+export function setup() {
+    const login = http.post(`${BASE_URL}/auth/login`,
+        JSON.stringify({ username: __ENV.USERNAME || 'admin', password: __ENV.PASSWORD || 'admin123' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(login, { 'logged in': (r) => r.status === 200 });
+    const token = login.json('token');
+
+    // Cards the search scenario looks up
+    const cards = [];
+    for (let i = 0; i < SEARCH_CARDS; i++) {
+        const card = luhnCard();
+        const res = http.post(`${BASE_URL}/api/cards`, JSON.stringify({ cardNumber: card }), jsonHeaders(token));
+        if (res.status === 201) cards.push(card);
+    }
+    return { token, cards };
+}
+
+export function create(data) {
+    // A random number can already be registered; that is a valid answer, not a failure
+    const params = Object.assign(jsonHeaders(data.token), { responseCallback: http.expectedStatuses(201, 409) });
+    const res = http.post(`${BASE_URL}/api/cards`, JSON.stringify({ cardNumber: luhnCard() }), params);
+    check(res, { 'created': (r) => r.status === 201 || r.status === 409 });
+}
+
+export function search(data) {
+    const card = data.cards[Math.floor(Math.random() * data.cards.length)];
+    const res = http.get(`${BASE_URL}/api/cards/search?number=${card}`, jsonHeaders(data.token));
+    check(res, { 'found': (r) => r.status === 200 });
+}
@@ -0,0 +1,74 @@
+package com.hyperativa.desafio.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hyperativa.desafio.util.CardHasher;
+import com.hyperativa.desafio.util.CardUtils;
+
+// Original getInstance + Integer.toHexString hashing against CardHasher; run with -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CardHashBenchmark {
+
+    private final String cardNumber = "4485680029594269";
+    private final byte[] line =
+            "C2     4485680029594269                           ".getBytes(StandardCharsets.US_ASCII);
+
+    @Benchmark
+    public String legacyHex() {
+        return legacyGenerateHash(cardNumber);
+    }
+
+    @Benchmark
+    public String generateHash() {
+        return CardUtils.generateHash(cardNumber);
+    }
+
+    @Benchmark
+    public byte[] generateHashBytes() {
+        return CardUtils.generateHashBytes(cardNumber);
+    }
+
+    @Benchmark
+    public byte[] sha256FromLineSlice() {
+        return CardHasher.sha256(line, 7, 16);
+    }
+
+    // CardUtils.generateHash as it was before CardHasher
+    private static String legacyGenerateHash(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] encodedhash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder(2 * encodedhash.length);
+            for (byte b : encodedhash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
+}
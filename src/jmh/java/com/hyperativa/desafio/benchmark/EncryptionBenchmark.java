@@ -0,0 +1,145 @@
+package com.hyperativa.desafio.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hyperativa.desafio.service.CardMetrics;
+import com.hyperativa.desafio.service.EncryptionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Per-call Cipher.getInstance and a shared SecureRandom against EncryptionService, per card and per chunk.
+// virtualThread*: one card per new virtual thread, per-thread caches against the pool
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class EncryptionBenchmark {
+
+    private static final String KEY = "5vMCw0th3/8uX1+Qj5/Zk9l8vMCw0th3/8uX1+Qj5/Y=";
+    private static final int CHUNK = 500;
+
+    private final String cardNumber = "4485680029594269";
+    private final SecureRandom sharedRandom = new SecureRandom();
+    private SecretKey legacyKey;
+    private EncryptionService encryptionService;
+    private List<String> chunk;
+    private byte[] stored;
+    private final ThreadLocal<Cipher> perThreadCipher = ThreadLocal.withInitial(EncryptionBenchmark::newCipher);
+    private final ThreadLocal<SecureRandom> perThreadIvSource = ThreadLocal.withInitial(EncryptionBenchmark::newDrbg);
+
+    @Setup
+    public void setUp() {
+        legacyKey = new SecretKeySpec(Base64.getDecoder().decode(KEY), "AES");
+        encryptionService = new EncryptionService(KEY, new CardMetrics(new SimpleMeterRegistry()));
+        chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            chunk.add(cardNumber);
+        }
+        stored = encryptionService.encryptToBytes(cardNumber);
+    }
+
+    @Benchmark
+    public String legacyEncrypt() throws Exception {
+        byte[] iv = new byte[12];
+        sharedRandom.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, legacyKey, new GCMParameterSpec(128, iv));
+        byte[] encryptedBytes = cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+
+        byte[] finalMessage = new byte[iv.length + encryptedBytes.length];
+        System.arraycopy(iv, 0, finalMessage, 0, iv.length);
+        System.arraycopy(encryptedBytes, 0, finalMessage, iv.length, encryptedBytes.length);
+        return Base64.getEncoder().encodeToString(finalMessage);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionService.encrypt(cardNumber);
+    }
+
+    // One op = one card, so scores compare directly with the per-card benchmarks
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public List<byte[]> encryptAllChunk() {
+        return encryptionService.encryptAll(chunk);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionService.decrypt(stored);
+    }
+
+    // Per-thread caches when every task gets a fresh virtual thread: a new cipher and DRBG each time
+    @Benchmark
+    public byte[] virtualThreadPerThreadCache() throws Exception {
+        return onVirtualThread(() -> {
+            byte[] iv = new byte[12];
+            perThreadIvSource.get().nextBytes(iv);
+            Cipher cipher = perThreadCipher.get();
+            cipher.init(Cipher.ENCRYPT_MODE, legacyKey, new GCMParameterSpec(128, iv));
+            return cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    @Benchmark
+    public byte[] virtualThreadPooled() throws Exception {
+        return onVirtualThread(() -> encryptionService.encryptToBytes(cardNumber));
+    }
+
+    private static byte[] onVirtualThread(Callable<byte[]> task) throws Exception {
+        AtomicReference<byte[]> result = new AtomicReference<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                result.set(task.call());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).join();
+        return result.get();
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SecureRandom newDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.hyperativa.desafio.benchmark;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hyperativa.desafio.domain.User;
+import com.hyperativa.desafio.security.JwtService;
+import com.hyperativa.desafio.security.VerifiedToken;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+// Original filter path (two parses, key decoded each time, users query left out) against verify()
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "5vMCw0th3/8uX1+Qj5/Zk9l8vMCw0th3/8uX1+Qj5/Y=";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(7));
+        token = jwtService.generateToken(User.builder().username("admin").password("").role("ADMIN").build());
+    }
+
+    @Benchmark
+    public boolean legacyFilterChecks() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(legacyClaims(token).getSubject())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<String> legacySingleParse() {
+        return legacyClaims(token).get("roles", List.class);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
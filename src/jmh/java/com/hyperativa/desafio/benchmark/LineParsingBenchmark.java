@@ -0,0 +1,109 @@
+package com.hyperativa.desafio.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.hyperativa.desafio.util.CardHashSet;
+import com.hyperativa.desafio.util.CardHasher;
+import com.hyperativa.desafio.util.CardUtils;
+import com.hyperativa.desafio.util.LoteFileParser;
+
+// Per-line ingestion CPU (field, Luhn, SHA-256, dedup) without encryption or the database,
+// readLine/trim parsing against LoteFileParser. Scores are per line
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineParsingBenchmark {
+
+    private static final int LINES = 10_000;
+
+    @Param({"0.0", "0.1"})
+    public double duplicateRatio;
+
+    private byte[] file;
+    private String[] cardNumbers;
+
+    @Setup
+    public void setUp() {
+        file = LoteFileGenerator.generate(LINES, duplicateRatio, 42);
+        List<String> numbers = LoteFileGenerator.cardNumbers(LINES, duplicateRatio, 42);
+        cardNumbers = numbers.toArray(String[]::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void isLuhnValid(Blackhole blackhole) {
+        for (String cardNumber : cardNumbers) {
+            blackhole.consume(CardUtils.isLuhnValid(cardNumber));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int parseFileWithReadLine() throws IOException {
+        CardHashSet fileHashes = new CardHashSet();
+        int accepted = 0;
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmedLine = line.trim();
+                if (!trimmedLine.startsWith("C") || trimmedLine.length() < 7) continue;
+
+                String rawCard = trimmedLine.substring(7, Math.min(trimmedLine.length(), 26)).trim();
+                if (rawCard.isEmpty() || !CardUtils.isLuhnValid(rawCard)) continue;
+
+                if (fileHashes.add(CardUtils.generateHashBytes(rawCard))) {
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int parseFileWithLoteParser() throws IOException {
+        CardHashSet fileHashes = new CardHashSet();
+        byte[] field = new byte[LoteFileParser.MAX_CARD_LENGTH];
+        int accepted = 0;
+
+        try (LoteFileParser parser = new LoteFileParser(new ByteArrayInputStream(file))) {
+            LoteFileParser.RecordType type;
+            while ((type = parser.next()) != null) {
+                if (type != LoteFileParser.RecordType.CARD || parser.cardLength() <= 0) continue;
+
+                parser.copyCard(field, 0);
+                if (!CardUtils.isLuhnValid(field, 0, parser.cardLength())) continue;
+
+                if (fileHashes.add(CardHasher.sha256(field, 0, parser.cardLength()))) {
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+}
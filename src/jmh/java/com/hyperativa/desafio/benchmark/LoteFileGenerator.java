@@ -0,0 +1,83 @@
+package com.hyperativa.desafio.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Deterministic LOTE files of Luhn-valid cards, duplicateRatio of them repeating earlier lines; seeds
+// give disjoint ranges. Standalone: LoteFileGenerator <output> <cards> [duplicateRatio] [seed]
+public final class LoteFileGenerator {
+
+    private static final String HEADER = "DESAFIO-HYPERATIVA           20180524LOTE0001";
+    private static final String TRAILER = "LOTE0001";
+    private static final int LINE_WIDTH = 51;
+
+    private LoteFileGenerator() {}
+
+    public static byte[] generate(int cards, double duplicateRatio, long seed) {
+        StringBuilder file = new StringBuilder((cards + 2) * (LINE_WIDTH + 1));
+        file.append(HEADER).append(String.format("%06d", cards)).append('\n');
+
+        List<String> numbers = cardNumbers(cards, duplicateRatio, seed);
+        for (int i = 0; i < numbers.size(); i++) {
+            int lineStart = file.length();
+            // "C" + up to 6 digits still fits before column 7
+            file.append('C').append(i % 999_999 + 1);
+            pad(file, lineStart + 7);
+            file.append(numbers.get(i));
+            pad(file, lineStart + LINE_WIDTH);
+            file.append('\n');
+        }
+
+        file.append(TRAILER).append(String.format("%06d", cards)).append('\n');
+        return file.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static List<String> cardNumbers(int cards, double duplicateRatio, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> numbers = new ArrayList<>(cards);
+        long base = Math.floorMod(seed, 10_000L) * 100_000_000L;
+
+        for (int i = 0; i < cards; i++) {
+            if (!numbers.isEmpty() && random.nextDouble() < duplicateRatio) {
+                numbers.add(numbers.get(random.nextInt(numbers.size())));
+            } else {
+                numbers.add(luhnCard(base + i));
+            }
+        }
+        return numbers;
+    }
+
+    static String luhnCard(long sequence) {
+        String body = String.format("4%014d", sequence);
+        int sum = 0;
+        for (int i = body.length() - 1, pos = 0; i >= 0; i--, pos++) {
+            int d = body.charAt(i) - '0';
+            if (pos % 2 == 0) d *= 2;
+            sum += d / 10 + d % 10;
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    private static void pad(StringBuilder line, int width) {
+        while (line.length() < width) {
+            line.append(' ');
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LoteFileGenerator <output> <cards> [duplicateRatio] [seed]");
+            System.exit(1);
+        }
+        int cards = Integer.parseInt(args[1]);
+        double duplicateRatio = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        Files.write(Path.of(args[0]), generate(cards, duplicateRatio, seed));
+    }
+}
@@ -0,0 +1,99 @@
+package com.hyperativa.desafio.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.hyperativa.desafio.DesafioApplication;
+import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.service.BatchCardService;
+import com.hyperativa.desafio.service.CardHashFilter;
+
+// processFile on the real context over in-memory H2 (MySQL mode, schema from the entities). H2 hides
+// network and InnoDB costs: compare engines and writers with each other, not with production
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ProcessFileBenchmark {
+
+    @Param({"20000"})
+    public int cards;
+
+    @Param({"0.0", "0.05"})
+    public double duplicateRatio;
+
+    @Param({"sequential", "pipelined"})
+    public String engine;
+
+    @Param({"jpa", "jdbc"})
+    public String writer;
+
+    @Param({"true"})
+    public boolean adaptiveChunks;
+
+    private ConfigurableApplicationContext context;
+    private BatchCardService batchCardService;
+    private JdbcTemplate jdbcTemplate;
+    private CardHashFilter cardHashFilter;
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(DesafioApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they win over application.yml
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--logging.level.root=WARN",
+                        "--batch.engine=" + engine,
+                        "--batch.writer=" + writer,
+                        "--batch.chunk.adaptive=" + adaptiveChunks);
+        batchCardService = context.getBean(BatchCardService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        cardHashFilter = context.getBean(CardHashFilter.class);
+        file = new MockMultipartFile("file", "lote.txt", "text/plain",
+                LoteFileGenerator.generate(cards, duplicateRatio, 42));
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyCards() {
+        jdbcTemplate.update("DELETE FROM cards");
+        // Otherwise the filter still holds the previous invocation's cards and every chunk queries the table
+        cardHashFilter.reload();
+    }
+
+    @Benchmark
+    public BatchSummary processFile() {
+        return batchCardService.processFile(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+}
@@ -0,0 +1,33 @@
+package com.hyperativa.desafio.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Thousands of virtual-thread requests can be in flight, so connections are handed out in order and
+// waiters get a 503 after acquire-timeout instead of piling up inside Hikari
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${database.max-concurrent-connections}") int maxConnections,
+            @Value("${database.acquire-timeout:5s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
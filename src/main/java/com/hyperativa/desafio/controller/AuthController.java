@@ -2,38 +2,86 @@ package com.hyperativa.desafio.controller;
 
 import com.hyperativa.desafio.dto.AuthRequest;
 import com.hyperativa.desafio.dto.AuthResponse;
+import com.hyperativa.desafio.dto.RefreshRequest;
 import com.hyperativa.desafio.security.JwtService;
+import com.hyperativa.desafio.security.UserPrincipalCache;
+import com.hyperativa.desafio.service.LoginService;
+import com.hyperativa.desafio.service.RefreshTokenService;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
+    private final LoginService loginService;
     private final JwtService jwtService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final RefreshTokenService refreshTokenService;
+
+    @Value("${security.jwt.refresh-enabled:false}")
+    private boolean refreshEnabled;
 
+    // Completes on the login pool, so the request thread is free while BCrypt runs
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        try {
-            org.springframework.security.core.Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest request) {
+        return loginService.authenticate(request.getUsername(), request.getPassword())
+                .thenApply(user -> user
+                        .map(userDetails -> ResponseEntity.ok(tokens(userDetails)))
+                        .orElseGet(() -> ResponseEntity.status(401).build()));
+    }
 
-            org.springframework.security.core.userdetails.UserDetails userDetails = (org.springframework.security.core.userdetails.UserDetails) authentication
-                    .getPrincipal();
+    // No password check; roles are read again from the users table. The refresh token is single use and
+    // the response carries its replacement
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest request) {
+        requireRefreshEnabled();
+        try {
+            Optional<String> username = refreshTokenService.consume(jwtService.verify(request.getRefreshToken()));
+            if (username.isEmpty()) {
+                return ResponseEntity.status(401).build();
+            }
+            return ResponseEntity.ok(tokens(userPrincipalCache.get(username.get())));
+        } catch (JwtException | UsernameNotFoundException e) {
+            // Invalid or expired token, or the user no longer exists
+            return ResponseEntity.status(401).build();
+        }
+    }
 
-            String token = jwtService.generateToken(userDetails);
-            return ResponseEntity.ok(new AuthResponse(token));
-        } catch (AuthenticationException e) {
+    // Revokes the refresh token; access tokens already issued stay valid until they expire
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshRequest request) {
+        requireRefreshEnabled();
+        try {
+            refreshTokenService.revoke(jwtService.verify(request.getRefreshToken()));
+            return ResponseEntity.noContent().build();
+        } catch (JwtException e) {
             return ResponseEntity.status(401).build();
         }
     }
+
+    private void requireRefreshEnabled() {
+        if (!refreshEnabled) {
+            throw new IllegalArgumentException("Refresh tokens are not enabled");
+        }
+    }
+
+    private AuthResponse tokens(UserDetails userDetails) {
+        return AuthResponse.builder()
+                .token(jwtService.generateToken(userDetails))
+                .refreshToken(refreshEnabled ? refreshTokenService.issue(userDetails) : null)
+                .build();
+    }
 }
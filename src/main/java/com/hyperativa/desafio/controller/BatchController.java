@@ -1,15 +1,24 @@
 package com.hyperativa.desafio.controller;
 
+import com.hyperativa.desafio.dto.BatchJobResponse;
 import com.hyperativa.desafio.dto.BatchSummary;
 import com.hyperativa.desafio.service.BatchCardService;
+import com.hyperativa.desafio.service.BatchJobService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/cards")
@@ -17,10 +26,42 @@ import org.springframework.web.multipart.MultipartFile;
 public class BatchController {
 
     private final BatchCardService batchCardService;
+    private final BatchJobService batchJobService;
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<BatchSummary> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<BatchSummary> uploadFile(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(defaultValue = "false") boolean detailed) {
         BatchSummary summary = batchCardService.processFile(file);
-        return ResponseEntity.ok(summary);
+        return ResponseEntity.ok(withTimings(summary, detailed));
+    }
+
+    // Raw request body, parsed while it is received: no multipart spooling, limited by batch.stream.*
+    @PostMapping(value = "/upload/stream",
+            consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<BatchSummary> uploadStream(InputStream body,
+                                                     @RequestParam(defaultValue = "false") boolean detailed) {
+        BatchSummary summary = batchCardService.processStream(body);
+        return ResponseEntity.ok(withTimings(summary, detailed));
+    }
+
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "async=true")
+    public ResponseEntity<BatchJobResponse> submitUpload(@RequestParam("file") MultipartFile file) {
+        BatchJobResponse job = batchJobService.submit(file);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/upload/{jobId}")
+    public ResponseEntity<BatchJobResponse> getUploadJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(batchJobService.getJob(jobId));
+    }
+
+    // The phase breakdown is for diagnosing slow uploads, so it is only sent when asked for
+    static BatchSummary withTimings(BatchSummary summary, boolean detailed) {
+        if (!detailed) summary.setTimings(null);
+        return summary;
     }
 }
@@ -1,15 +1,32 @@
 package com.hyperativa.desafio.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hyperativa.desafio.dto.BulkCardResult;
+import com.hyperativa.desafio.dto.BulkLookupResult;
 import com.hyperativa.desafio.dto.CardRequest;
 import com.hyperativa.desafio.dto.CardResponse;
 import com.hyperativa.desafio.service.CardService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/cards")
@@ -17,6 +34,7 @@ import java.util.UUID;
 public class CardController {
 
     private final CardService cardService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<CardResponse> create(@RequestBody @Valid CardRequest request) {
@@ -24,15 +42,74 @@ public class CardController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Partial success: always 200, with a status per card in request order
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkCardResult>> createAll(@RequestBody List<CardRequest> requests) {
+        return ResponseEntity.ok(cardService.createAll(requests));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CardResponse> getCard(@PathVariable UUID id) {
         CardResponse response = cardService.getCard(id);
         return ResponseEntity.ok(response);
     }
 
+    // Up to cards.lookup.max-size numbers; each result is written as soon as its chunk has been queried
+    @PostMapping(value = "/search/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> searchAll(InputStream body) throws IOException {
+        return streamed(cardService.findAllByCardNumber(readLookupArray(body, String.class)));
+    }
+
+    @PostMapping(value = "/batch-get", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAll(InputStream body) throws IOException {
+        return streamed(cardService.getCards(readLookupArray(body, UUID.class)));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<CardResponse> search(@RequestParam("number") String number) {
         CardResponse response = cardService.findByCardNumber(number);
         return ResponseEntity.ok(response);
     }
+
+    // Parsed one element at a time, so an oversized array is rejected at cards.lookup.max-size + 1 elements
+    // instead of after the whole body has been deserialized
+    private <T> List<T> readLookupArray(InputStream body, Class<T> type) throws IOException {
+        int maxSize = cardService.maxLookupSize();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array");
+            }
+            List<T> values = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (values.size() == maxSize) {
+                    throw new IllegalArgumentException("At most " + maxSize + " cards per request");
+                }
+                values.add(objectMapper.readValue(parser, type));
+            }
+            return values;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON array: " + e.getOriginalMessage());
+        }
+    }
+
+    // JSON array written chunk by chunk, flushed once per chunk rather than once per result
+    private ResponseEntity<StreamingResponseBody> streamed(Stream<List<BulkLookupResult>> chunks) {
+        ObjectWriter writer = objectMapper.writerFor(BulkLookupResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // Spring flushes and closes the response
+                json.writeStartArray();
+                for (Iterator<List<BulkLookupResult>> it = chunks.iterator(); it.hasNext(); ) {
+                    for (BulkLookupResult result : it.next()) {
+                        writer.writeValue(json, result);
+                    }
+                    json.flush();
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
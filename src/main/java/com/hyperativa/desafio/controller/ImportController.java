@@ -0,0 +1,33 @@
+package com.hyperativa.desafio.controller;
+
+import com.hyperativa.desafio.dto.BatchJobResponse;
+import com.hyperativa.desafio.service.FileImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final FileImportService fileImportService;
+
+    // Queues the import of a LOTE file from the server's import directory (the path is relative to it);
+    // progress and the summary are read from GET /api/cards/upload/{jobId}
+    @PostMapping("/imports")
+    public ResponseEntity<BatchJobResponse> importFile(@RequestParam("file") String file) {
+        BatchJobResponse job = fileImportService.submitImport(file);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/cards/upload/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+}
@@ -0,0 +1,55 @@
+package com.hyperativa.desafio.domain;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Last committed line of an unfinished upload and its counts, removed once the file completes
+// or after batch.checkpoint.ttl
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Builder
+@Entity @Table(name = "batch_checkpoints")
+public class BatchCheckpoint {
+
+    // Hex SHA-256 of the whole file
+    @Id
+    @Column(length = 64)
+    private String fileDigest;
+
+    @Column(nullable = false)
+    private int lineNumber;
+
+    @Column(nullable = false)
+    private int successCount;
+
+    @Column(nullable = false)
+    private int failedCount;
+
+    @Column(nullable = false)
+    private int duplicateCount;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchCheckpoint checkpoint = (BatchCheckpoint) o;
+        return fileDigest != null && Objects.equals(fileDigest, checkpoint.fileDigest);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
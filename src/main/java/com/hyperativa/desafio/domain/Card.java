@@ -1,15 +1,18 @@
 package com.hyperativa.desafio.domain;
 
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Objects;
 import java.util.UUID;
 
+import com.hyperativa.desafio.util.CardUtils;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AccessLevel;
@@ -22,8 +25,7 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter @Setter @Builder
-@Entity @Table(name = "cards", indexes = {
-		@Index(name = "idx_card_hash", columnList = "numberHash")})
+@Entity @Table(name = "cards")
 public class Card {
 
     @Id
@@ -31,11 +33,23 @@ public class Card {
     @Setter(AccessLevel.NONE)
     private UUID id;
 
-    @Column(nullable = false, updatable = false, length = 512)
-    private String encryptedNumber;
+    // IV || AES-GCM ciphertext || tag, see EncryptionService. NULL in rows V9 has not backfilled yet
+    @Column(name = "encrypted_number_bin", updatable = false, columnDefinition = "VARBINARY(64)")
+    private byte[] encryptedNumber;
+
+    // Base64 of the same bytes, still written for previous-version instances until the contract migration
+    @Column(name = "encrypted_number", nullable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String legacyEncryptedNumber;
 
-    @Column(nullable = false, unique = true, updatable = false, length = 64)
-    private String numberHash;
+    // Raw SHA-256 digest of the card number. NULL in rows V7 has not backfilled yet, NOT NULL after
+    @Column(name = "number_hash_bin", unique = true, updatable = false, columnDefinition = "BINARY(32)")
+    private byte[] numberHash;
+
+    // Hex digest, still written for previous-version instances until the contract migration drops it
+    @Column(name = "number_hash", nullable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String legacyNumberHash;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -45,6 +59,27 @@ public class Card {
         if (this.createdAt == null) {
             this.createdAt = LocalDateTime.now();
         }
+        if (this.legacyNumberHash == null && this.numberHash != null) {
+            this.legacyNumberHash = CardUtils.toHex(this.numberHash);
+        }
+        if (this.legacyEncryptedNumber == null && this.encryptedNumber != null) {
+            this.legacyEncryptedNumber = Base64.getEncoder().encodeToString(this.encryptedNumber);
+        }
+    }
+
+    public byte[] getEncryptedNumber() {
+        if (encryptedNumber == null && legacyEncryptedNumber != null) {
+            return Base64.getDecoder().decode(legacyEncryptedNumber);
+        }
+        return encryptedNumber;
+    }
+
+    // Rows not backfilled yet only have the hex digest
+    public byte[] getNumberHash() {
+        if (numberHash == null && legacyNumberHash != null) {
+            return HexFormat.of().parseHex(legacyNumberHash);
+        }
+        return numberHash;
     }
     
     @Override
@@ -0,0 +1,30 @@
+package com.hyperativa.desafio.dto;
+
+import com.hyperativa.desafio.domain.BatchJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchJobResponse {
+    private UUID jobId;
+    private BatchJob.Status status;
+    private String fileName;
+    private int linesRead;
+    private int successCount;
+    private int failedCount;
+    private int duplicateCount;
+    private double linesPerSecond;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private BatchSummary summary;
+}
@@ -1,5 +1,6 @@
 package com.hyperativa.desafio.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,9 +10,12 @@ import lombok.NoArgsConstructor;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class BatchSummary {
     private int totalLinesProcessed;
     private int successCount;
     private int failedCount;
+    private int duplicateCount; // Part of failedCount: cards already registered or repeated in the file
     private long durationMs;
+    private BatchTimings timings; // Only returned by the upload endpoints with detailed=true
 }
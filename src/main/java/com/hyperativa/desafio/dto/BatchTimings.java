@@ -0,0 +1,25 @@
+package com.hyperativa.desafio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Phase times are summed over all threads, so they can add up to more than durationMs
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTimings {
+    private double parseMs;    // Reading lines and locating the card field
+    private double luhnMs;
+    private double hashMs;
+    private double encryptMs;
+    private double lookupMs;   // Finding already registered cards, once per chunk
+    private double insertMs;   // Bulk inserts, including their transactions
+    private double fallbackMs; // Card-by-card inserts of chunks whose bulk insert failed
+    private int chunkCount;
+    private int fallbackCount;
+    private double linesPerSecond;
+    private int peakBufferedCards; // Most cards held between reading and writing
+}
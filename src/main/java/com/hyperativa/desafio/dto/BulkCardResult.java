@@ -0,0 +1,26 @@
+package com.hyperativa.desafio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCardResult {
+
+    public enum Status {
+        CREATED, INVALID, DUPLICATE, FAILED
+    }
+
+    private int index; // Position of the card in the request
+    private Status status;
+    private UUID id;
+    private LocalDateTime createdAt;
+    private String error;
+}
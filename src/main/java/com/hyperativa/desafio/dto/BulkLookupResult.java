@@ -0,0 +1,20 @@
+package com.hyperativa.desafio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkLookupResult {
+    private int index; // Position of the card number or id in the request
+    private boolean found;
+    private UUID id;
+    private LocalDateTime createdAt;
+}
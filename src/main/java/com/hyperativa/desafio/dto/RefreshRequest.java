@@ -0,0 +1,14 @@
+package com.hyperativa.desafio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,10 @@
+package com.hyperativa.desafio.exception;
+
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = -3811725532904425137L;
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
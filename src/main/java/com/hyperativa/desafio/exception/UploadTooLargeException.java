@@ -0,0 +1,10 @@
+package com.hyperativa.desafio.exception;
+
+public class UploadTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 6127361954409736822L;
+
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
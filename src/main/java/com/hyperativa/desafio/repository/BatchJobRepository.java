@@ -0,0 +1,44 @@
+package com.hyperativa.desafio.repository;
+
+import com.hyperativa.desafio.domain.BatchJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, UUID> {
+
+    @Transactional
+    @Modifying
+    @Query("update BatchJob j set j.linesRead = :linesRead, j.successCount = :successCount, "
+            + "j.failedCount = :failedCount, j.duplicateCount = :duplicateCount where j.id = :id")
+    int updateProgress(@Param("id") UUID id,
+                       @Param("linesRead") int linesRead,
+                       @Param("successCount") int successCount,
+                       @Param("failedCount") int failedCount,
+                       @Param("duplicateCount") int duplicateCount);
+
+    @Transactional
+    @Modifying
+    @Query("update BatchJob j set j.status = :status, j.errorMessage = :errorMessage "
+            + "where (j.instanceId = :instanceId or j.instanceId is null) and j.status in :statuses")
+    int updateStatusOfInstanceJobs(@Param("instanceId") String instanceId,
+                                   @Param("statuses") Collection<BatchJob.Status> statuses,
+                                   @Param("status") BatchJob.Status status,
+                                   @Param("errorMessage") String errorMessage);
+
+    @Transactional
+    @Modifying
+    @Query("update BatchJob j set j.status = :status, j.errorMessage = :errorMessage "
+            + "where j.id = :id and j.status in :statuses")
+    int updateStatusIfIn(@Param("id") UUID id,
+                         @Param("statuses") Collection<BatchJob.Status> statuses,
+                         @Param("status") BatchJob.Status status,
+                         @Param("errorMessage") String errorMessage);
+}
@@ -0,0 +1,97 @@
+package com.hyperativa.desafio.repository;
+
+import com.hyperativa.desafio.domain.Card;
+import com.hyperativa.desafio.util.CardUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Multi-row INSERTs straight into cards, bypassing the persistence context, in the caller's transaction
+@Repository
+@RequiredArgsConstructor
+public class CardBulkWriter {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO cards (id, encrypted_number_bin, encrypted_number, number_hash_bin, number_hash, "
+                    + "created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    @Value("${batch.jdbc.rows-per-statement:100}")
+    private int rowsPerStatement = 100;
+
+    private String fullStatement;
+
+    // Any constraint violation fails the whole call; callers roll back
+    public int insertAll(List<Card> cards) {
+        int inserted = 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int from = 0; from < cards.size(); from += rowsPerStatement) {
+            List<Card> rows = cards.subList(from, Math.min(cards.size(), from + rowsPerStatement));
+            inserted += jdbcTemplate.update(statementFor(rows.size()), ps -> bindRows(ps, rows, now));
+        }
+        return inserted;
+    }
+
+    private void bindRows(PreparedStatement ps, List<Card> rows, LocalDateTime now) throws SQLException {
+        int index = 1;
+        for (Card card : rows) {
+            UUID id = card.getId() != null ? card.getId() : newId();
+            LocalDateTime createdAt = card.getCreatedAt() != null ? card.getCreatedAt() : now;
+
+            ps.setBytes(index++, toBytes(id));
+            ps.setBytes(index++, card.getEncryptedNumber());
+            ps.setString(index++, Base64.getEncoder().encodeToString(card.getEncryptedNumber()));
+            ps.setBytes(index++, card.getNumberHash());
+            ps.setString(index++, CardUtils.toHex(card.getNumberHash()));
+            ps.setTimestamp(index++, Timestamp.valueOf(createdAt));
+        }
+    }
+
+    private String statementFor(int rowCount) {
+        if (rowCount == rowsPerStatement) {
+            if (fullStatement == null) {
+                fullStatement = buildStatement(rowsPerStatement);
+            }
+            return fullStatement;
+        }
+        return buildStatement(rowCount);
+    }
+
+    private static String buildStatement(int rowCount) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rowCount * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        return sql.toString();
+    }
+
+    // UUIDv7 (48-bit millis, then random bits) so rows append to the clustered index; unique, not secret
+    public UUID newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -1,16 +1,86 @@
 package com.hyperativa.desafio.repository;
 
 import com.hyperativa.desafio.domain.Card;
+import com.hyperativa.desafio.util.CardUtils;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, UUID> {
 
-    boolean existsByNumberHash(String numberHash);
+    boolean existsByNumberHash(byte[] numberHash);
 
-    Optional<Card> findByNumberHash(String numberHash);
+    Optional<Card> findByNumberHash(byte[] numberHash);
+
+    @Query("select c.numberHash from Card c where c.numberHash in :hashes")
+    List<byte[]> findExistingHashes(@Param("hashes") Collection<byte[]> hashes);
+
+    List<CardRef> findByNumberHashIn(Collection<byte[]> hashes);
+
+    // Keyset page over the unique index: each call is a range scan, however large the table is
+    @Query(value = "SELECT number_hash_bin FROM cards WHERE number_hash_bin > :after "
+            + "ORDER BY number_hash_bin LIMIT :limit", nativeQuery = true)
+    List<byte[]> findHashesAfter(@Param("after") byte[] after, @Param("limit") int limit);
+
+    List<CardRef> findByIdIn(Collection<UUID> ids);
+
+    // Hex digest lookups, for while number_hash_bin is being backfilled: every row has number_hash until the
+    // contract migration
+    boolean existsByLegacyNumberHash(String legacyNumberHash);
+
+    Optional<Card> findByLegacyNumberHash(String legacyNumberHash);
+
+    @Query("select c.legacyNumberHash from Card c where c.legacyNumberHash in :hashes")
+    List<String> findExistingLegacyHashes(@Param("hashes") Collection<String> hashes);
+
+    List<LegacyCardRef> findByLegacyNumberHashIn(Collection<String> hashes);
+
+    default boolean existsByLegacyNumberHash(byte[] numberHash) {
+        return existsByLegacyNumberHash(CardUtils.toHex(numberHash));
+    }
+
+    default Optional<Card> findByLegacyNumberHash(byte[] numberHash) {
+        return findByLegacyNumberHash(CardUtils.toHex(numberHash));
+    }
+
+    default List<byte[]> findExistingLegacyHashes(List<byte[]> hashes) {
+        return findExistingLegacyHashes(hashes.stream().map(CardUtils::toHex).toList()).stream()
+                .map(HexFormat.of()::parseHex)
+                .toList();
+    }
+
+    default List<CardRef> findByLegacyNumberHashIn(List<byte[]> hashes) {
+        return findByLegacyNumberHashIn(hashes.stream().map(CardUtils::toHex).toList()).stream()
+                .<CardRef>map(card -> new FoundCard(card.getId(),
+                        HexFormat.of().parseHex(card.getLegacyNumberHash()), card.getCreatedAt()))
+                .toList();
+    }
+
+    // Projection for lookups: the ciphertext is not read
+    interface CardRef {
+        UUID getId();
+
+        byte[] getNumberHash();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    interface LegacyCardRef {
+        UUID getId();
+
+        String getLegacyNumberHash();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    record FoundCard(UUID getId, byte[] getNumberHash, LocalDateTime getCreatedAt) implements CardRef {}
 }
@@ -0,0 +1,32 @@
+package com.hyperativa.desafio.repository;
+
+import com.hyperativa.desafio.domain.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    // 1 for the single caller that gets to exchange the token, 0 for everyone else
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.id = :id and t.expiresAt > :now")
+    int deleteActive(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.username = :username")
+    int deleteByUsername(@Param("username") String username);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,27 +1,40 @@
 package com.hyperativa.desafio.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
+// Principal built from the token's subject and roles claim, so requests never query users;
+// tokens without the claim fall back to UserPrincipalCache
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final Timer verifyTimer;
+
+    public JwtAuthenticationFilter(JwtService jwtService, UserPrincipalCache userPrincipalCache,
+                                   MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.verifyTimer = Timer.builder("auth.token.verify")
+                .description("Verifying a bearer token and building its principal")
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(
@@ -30,7 +43,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -38,24 +50,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
+        long start = System.nanoTime();
         try {
-            username = jwtService.extractUsername(jwt);
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            // Signature and expiry are checked here
+            VerifiedToken token = jwtService.verify(jwt);
+            if (token.subject() != null && !token.refresh()
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = principal(token);
+
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             // Token invalid or user not found, continue filter chain without authentication
         }
+        verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails principal(VerifiedToken token) {
+        if (token.roles() == null) {
+            return userPrincipalCache.get(token.subject());
+        }
+        return UserPrincipalCache.principal(token.subject(),
+                token.roles().stream().map(SimpleGrantedAuthority::new).toList());
+    }
 }
@@ -1,6 +1,7 @@
 package com.hyperativa.desafio.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -15,17 +16,43 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// Key and parser are immutable and thread-safe, so they are built once
 @Service
 public class JwtService {
 
-    @Value("${security.jwt.secret}")
-    private String secretKey;
+    static final String ROLES_CLAIM = "roles";
+    static final String TOKEN_TYPE_CLAIM = "token_type";
+    static final String REFRESH_TOKEN_TYPE = "refresh";
 
-    @Value("${security.jwt.expiration-ms}")
-    private long jwtExpiration;
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final long refreshExpiration;
+
+    public JwtService(@Value("${security.jwt.secret}") String secretKey,
+                      @Value("${security.jwt.expiration-ms}") long jwtExpiration,
+                      @Value("${security.jwt.refresh-expiration-ms:604800000}") long refreshExpiration) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    // Signature and expiry in a single parse; throws JwtException when invalid
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles == null ? null : roles.stream().map(Object::toString).toList(),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant(),
+                REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class)),
+                claims.getId());
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -41,43 +68,37 @@ public class JwtService {
         List<String> roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
-        claims.put("roles", roles);
+        claims.put(ROLES_CLAIM, roles);
         return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        return buildToken(extraClaims, userDetails, jwtExpiration);
+    }
+
+    // Only identifies the user and, by its jti, the refresh_tokens row /auth/refresh consumes
+    public String generateRefreshToken(UserDetails userDetails, UUID tokenId) {
+        Map<String, Object> claims = Map.of(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE, Claims.ID, tokenId.toString());
+        return buildToken(claims, userDetails, refreshExpiration);
+    }
+
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
         return Jwts.builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        // The parse already rejects expired tokens
+        return userDetails.getUsername().equals(extractUsername(token));
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Throws JwtException when the signature or expiry is invalid
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 }
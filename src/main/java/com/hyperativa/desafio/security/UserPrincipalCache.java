@@ -0,0 +1,48 @@
+package com.hyperativa.desafio.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+// Principals for tokens without a roles claim, kept briefly; never the password hash
+@Component
+public class UserPrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> principals;
+
+    public UserPrincipalCache(UserDetailsService userDetailsService,
+                              MeterRegistry meterRegistry,
+                              @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${security.principal-cache.ttl:60s}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "users");
+    }
+
+    // Unknown users throw UsernameNotFoundException and are not cached
+    public UserDetails get(String username) {
+        UserDetails cached = principals.getIfPresent(username);
+        if (cached != null) return cached;
+
+        // Loaded outside the cache, like CardLookupCache, so the query never runs in Caffeine's compute lock
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        UserDetails principal = principal(user.getUsername(), user.getAuthorities());
+        principals.put(username, principal);
+        return principal;
+    }
+
+    static UserDetails principal(String username, Collection<? extends GrantedAuthority> authorities) {
+        return User.withUsername(username).password("").authorities(authorities).build();
+    }
+}
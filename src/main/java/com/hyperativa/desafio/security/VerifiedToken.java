@@ -0,0 +1,7 @@
+package com.hyperativa.desafio.security;
+
+import java.time.Instant;
+import java.util.List;
+
+// roles is null for tokens issued without the claim; id is the jti, which only refresh tokens carry
+public record VerifiedToken(String subject, List<String> roles, Instant expiresAt, boolean refresh, String id) {}
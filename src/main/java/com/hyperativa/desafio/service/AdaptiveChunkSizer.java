@@ -0,0 +1,96 @@
+package com.hyperativa.desafio.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Chunk size shared by all uploads: halved after a fallback, shrunk when a commit exceeds target-commit,
+// grown when full chunks commit in under half of it. Fixed when batch.chunk.adaptive=false
+@Component
+@Slf4j
+public class AdaptiveChunkSizer {
+
+    private final boolean adaptive;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetCommitNanos;
+    private volatile int size;
+
+    private final Counter grownOnFastCommit;
+    private final Counter shrunkOnSlowCommit;
+    private final Counter shrunkOnFallback;
+
+    public AdaptiveChunkSizer(MeterRegistry meterRegistry,
+                              @Value("${batch.chunk.adaptive:true}") boolean adaptive,
+                              @Value("${batch.chunk.initial-size:500}") int initialSize,
+                              @Value("${batch.chunk.min-size:50}") int minSize,
+                              @Value("${batch.chunk.max-size:5000}") int maxSize,
+                              @Value("${batch.chunk.target-commit:250ms}") Duration targetCommit) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("batch.chunk sizes must satisfy 1 <= min-size <= max-size");
+        }
+        this.adaptive = adaptive;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetCommitNanos = targetCommit.toNanos();
+        this.size = clamp(initialSize);
+
+        grownOnFastCommit = resizeCounter(meterRegistry, "fast_commit");
+        shrunkOnSlowCommit = resizeCounter(meterRegistry, "slow_commit");
+        shrunkOnFallback = resizeCounter(meterRegistry, "fallback");
+
+        Gauge.builder("batch.chunk.size", this, AdaptiveChunkSizer::chunkSize)
+                .description("Cards per chunk for the next upload chunks")
+                .register(meterRegistry);
+    }
+
+    public int chunkSize() {
+        return size;
+    }
+
+    // chunkCards includes cards dropped as already registered
+    public synchronized void commitSucceeded(int chunkCards, long commitNanos) {
+        if (!adaptive) return;
+
+        int current = size;
+        if (commitNanos > targetCommitNanos) {
+            int shrunk = (int) Math.max(current / 2, current * targetCommitNanos / commitNanos);
+            resize(current, shrunk, shrunkOnSlowCommit, "slow commit");
+        } else if (commitNanos < targetCommitNanos / 2 && chunkCards >= current) {
+            // Only full chunks say something about larger ones; the last, partial chunk of a file does not
+            resize(current, current + Math.max(1, current / 4), grownOnFastCommit, "fast commit");
+        }
+    }
+
+    public synchronized void commitFellBack(int chunkCards) {
+        if (!adaptive) return;
+
+        int current = size;
+        resize(current, Math.min(current, chunkCards) / 2, shrunkOnFallback, "fallback");
+    }
+
+    private void resize(int current, int requested, Counter reason, String description) {
+        int next = clamp(requested);
+        if (next == current) return;
+
+        size = next;
+        reason.increment();
+        log.debug("Chunk size {} -> {} after {}", current, next, description);
+    }
+
+    private int clamp(int requested) {
+        return Math.max(minSize, Math.min(maxSize, requested));
+    }
+
+    private static Counter resizeCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("batch.chunk.resizes")
+                .tag("reason", reason)
+                .description("Chunk size changes, by what caused them")
+                .register(meterRegistry);
+    }
+}
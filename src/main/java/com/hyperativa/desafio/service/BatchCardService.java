@@ -2,24 +2,41 @@ package com.hyperativa.desafio.service;
 
 import com.hyperativa.desafio.domain.Card;
 import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.exception.DuplicateCardException;
+import com.hyperativa.desafio.repository.BatchCheckpointRepository;
+import com.hyperativa.desafio.repository.CardBulkWriter;
 import com.hyperativa.desafio.repository.CardRepository;
+import com.hyperativa.desafio.util.CardHashSet;
+import com.hyperativa.desafio.util.CardHasher;
 import com.hyperativa.desafio.util.CardUtils;
+import com.hyperativa.desafio.util.LimitedInputStream;
+import com.hyperativa.desafio.util.LoteFileParser;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -27,148 +44,461 @@ import java.util.Set;
 public class BatchCardService {
 
     private final CardRepository cardRepository;
+    private final CardBulkWriter cardBulkWriter;
     private final EncryptionService encryptionService;
     private final TransactionTemplate transactionTemplate;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final CardHashFilter cardHashFilter;
+    private final CardBackfillService cardBackfillService;
+    private final CardMetrics metrics;
+    private final AdaptiveChunkSizer chunkSizer;
 
     @PersistenceContext
     private final EntityManager entityManager;
 
-    private static final int BATCH_SIZE = 500;
+    @Value("${batch.engine:sequential}")
+    private Engine engine;
+
+    @Value("${batch.writer:jpa}")
+    private Writer writer;
+
+    @Value("${batch.pipeline.workers:4}")
+    private int pipelineWorkers;
+
+    @Value("${batch.pipeline.max-blocks-in-flight:16}")
+    private int pipelineMaxBlocksInFlight;
+
+    @Value("${batch.pipeline.block-size:250}")
+    private int pipelineBlockSize;
+
+    @Value(WorkerThreads.VIRTUAL_THREADS_PROPERTY)
+    private boolean virtualThreads;
+
+    @Value("${batch.dedup.max-tracked-hashes:1000000}")
+    private int maxTrackedHashes = 1_000_000;
+
+    @Value("${batch.checkpoint.ttl:7d}")
+    private Duration checkpointTtl = Duration.ofDays(7);
+
+    @Value("${batch.stream.max-size:1GB}")
+    private DataSize streamMaxSize = DataSize.ofGigabytes(1);
+
+    @Value("${batch.stream.max-concurrent:2}")
+    private int streamMaxConcurrent = 2;
+
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    public enum Engine {
+        SEQUENTIAL, PIPELINED
+    }
+
+    public enum Writer {
+        JPA, JDBC
+    }
 
     public BatchSummary processFile(MultipartFile file) {
+        try {
+            String fileDigest = digest(file);
+            return process(file.getInputStream(), new BatchProgress(), fileDigest);
+        } catch (IOException e) {
+            log.error("IO Error processing file", e);
+            throw new RuntimeException("Error processing file", e);
+        }
+    }
+
+    // Parses the body as it arrives; memory is bounded by the pipeline's blocks and one chunk
+    public BatchSummary processStream(InputStream input) {
+        // Runs on the request thread with its own in-file dedup set, so both the size and the number of
+        // streams at once are capped; more streams are rejected with a 503 like a full job queue
+        if (activeStreams.incrementAndGet() > streamMaxConcurrent) {
+            activeStreams.decrementAndGet();
+            throw new RejectedExecutionException("Too many streaming uploads in progress");
+        }
+        try {
+            return process(new LimitedInputStream(input, streamMaxSize.toBytes()), new BatchProgress());
+        } finally {
+            activeStreams.decrementAndGet();
+        }
+    }
+
+    public BatchSummary process(InputStream input, BatchProgress progress) {
+        return process(input, progress, null);
+    }
+
+    // With a fileDigest, a re-submitted file resumes after its last checkpoint. A crash between a commit
+    // and its checkpoint replays that chunk, reported as duplicates
+    public BatchSummary process(InputStream input, BatchProgress progress, String fileDigest) {
         long startTime = System.currentTimeMillis();
-        int totalLinesProcessed = 0;
-        int successCount = 0;
-        int failedCount = 0;
+        Checkpoint resumeFrom = loadCheckpoint(fileDigest);
 
-        List<Card> buffer = new ArrayList<>(BATCH_SIZE);
-        Set<String> batchHashes = HashSet.newHashSet(BATCH_SIZE);
+        try (LoteFileParser parser = new LoteFileParser(input)) {
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            Consumer<Checkpoint> report = reportTo(progress);
+            Consumer<Checkpoint> onChunkCommitted = fileDigest == null ? report : checkpoint -> {
+                saveCheckpoint(fileDigest, checkpoint);
+                report.accept(checkpoint);
+            };
+            BatchPhaseTimer timer = new BatchPhaseTimer();
+            BatchSummary summary = engine == Engine.PIPELINED
+                    ? processPipelined(parser, progress, resumeFrom, onChunkCommitted, timer)
+                    : processSequential(parser, progress, newFileDedup(), resumeFrom, onChunkCommitted, timer);
+            checkDeclaredRecords(parser.header(), parser.trailer(), parser.cardRecords());
+            summary.setDurationMs(System.currentTimeMillis() - startTime);
+            summary.setTimings(timer.toTimings(summary.getTotalLinesProcessed() - resumeFrom.lineNumber(),
+                    summary.getDurationMs()));
+            log.info("Processed {} lines in {} ms: {}", summary.getTotalLinesProcessed(), summary.getDurationMs(),
+                    summary.getTimings());
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                totalLinesProcessed++;
-                String trimmedLine = line.trim();
+            if (fileDigest != null) checkpointRepository.deleteByFileDigest(fileDigest);
+            return summary;
+
+        } catch (IOException e) {
+            log.error("IO Error processing file", e);
+            throw new RuntimeException("Error processing file", e);
+        }
+    }
 
-                if (shouldSkip(trimmedLine)) continue;
+    private BatchSummary processPipelined(LoteFileParser parser, BatchProgress progress, Checkpoint resumeFrom,
+                                          Consumer<Checkpoint> onChunkCommitted, BatchPhaseTimer timer)
+            throws IOException {
+        BatchPipeline pipeline = new BatchPipeline(
+                pipelineWorkers, pipelineMaxBlocksInFlight, pipelineBlockSize, chunkSizer::chunkSize,
+                (field, offset, length) -> parseAndValidate(field, offset, length, null, timer),
+                parsed -> encryptAll(parsed, timer),
+                cards -> processBatch(cards, timer),
+                newFileDedup(),
+                progress,
+                onChunkCommitted,
+                virtualThreads,
+                timer);
+        return pipeline.run(parser, resumeFrom);
+    }
 
-                if (trimmedLine.startsWith("C")) {
-                    try {
-                        Card card = parseAndValidate(trimmedLine, batchHashes);
+    // FileImportService runs several at once, one per region, sharing a synchronized firstInFile
+    BatchSummary processSequential(LoteFileParser parser, BatchProgress progress,
+                                   Predicate<byte[]> firstInFile, BatchPhaseTimer timer) throws IOException {
+        return processSequential(parser, progress, firstInFile, Checkpoint.START, reportTo(progress), timer);
+    }
 
-                        buffer.add(card);
-                        batchHashes.add(card.getNumberHash());
+    private BatchSummary processSequential(LoteFileParser parser, BatchProgress progress,
+                                           Predicate<byte[]> firstInFile, Checkpoint resumeFrom,
+                                           Consumer<Checkpoint> onChunkCommitted, BatchPhaseTimer timer)
+            throws IOException {
+        int successCount = resumeFrom.successCount();
+        int failedCount = resumeFrom.failedCount();
+        int duplicateCount = resumeFrom.duplicateCount();
 
-                    } catch (Exception e) {
-                        failedCount++;
-                        log.debug("Validation error line {}: {}", totalLinesProcessed, e.getMessage());
-                    }
-                }
+        // Read again after every chunk, so a long file follows the sizer as it adapts
+        int chunkSize = chunkSizer.chunkSize();
+        List<ParsedCard> buffer = new ArrayList<>(chunkSize);
+        byte[] cardField = new byte[LoteFileParser.MAX_CARD_LENGTH];
 
-                if (buffer.size() >= BATCH_SIZE) {
-                    BatchResult result = processBatch(buffer);
-                    successCount += result.savedCount;
-                    failedCount += result.failedCount;
-                    
-                    // Prepare for the next batch
-                    buffer.clear();
-                    batchHashes.clear();
+        LoteFileParser.RecordType type;
+        long readStart = System.nanoTime();
+        while ((type = parser.next()) != null) {
+            if (type == LoteFileParser.RecordType.CARD && parser.lineNumber() > resumeFrom.lineNumber()) {
+                try {
+                    parser.copyCard(cardField, 0);
+                    timer.addParse(System.nanoTime() - readStart);
+                    buffer.add(parseAndValidate(cardField, 0, parser.cardLength(), firstInFile, timer));
+                    timer.observeBufferedCards(buffer.size());
+
+                } catch (DuplicateCardException e) {
+                    failedCount++;
+                    duplicateCount++;
+                    log.debug("Validation error line {}: {}", parser.lineNumber(), e.getMessage());
+                } catch (Exception e) {
+                    failedCount++;
+                    log.debug("Validation error line {}: {}", parser.lineNumber(), e.getMessage());
                 }
             }
 
-            // Final flush (remaining items)
-            if (!buffer.isEmpty()) {
-                BatchResult result = processBatch(buffer);
+            if (buffer.size() >= chunkSize) {
+                BatchResult result = processBatch(encryptAll(buffer, timer), timer);
                 successCount += result.savedCount;
                 failedCount += result.failedCount;
+                duplicateCount += result.duplicateCount;
+                
+                // Prepare for the next batch
+                buffer.clear();
+                chunkSize = chunkSizer.chunkSize();
+
+                progress.recordLinesRead(parser.lineNumber());
+                onChunkCommitted.accept(
+                        new Checkpoint(parser.lineNumber(), successCount, failedCount, duplicateCount));
             }
+            readStart = System.nanoTime();
+        }
 
-        } catch (IOException e) {
-            log.error("IO Error processing file", e);
-            throw new RuntimeException("Error processing file", e);
+        // Final flush (remaining items)
+        if (!buffer.isEmpty()) {
+            BatchResult result = processBatch(encryptAll(buffer, timer), timer);
+            successCount += result.savedCount;
+            failedCount += result.failedCount;
+            duplicateCount += result.duplicateCount;
         }
 
+        int totalLinesProcessed = parser.lineNumber();
+        progress.recordLinesRead(totalLinesProcessed);
+        progress.recordResults(successCount, failedCount, duplicateCount);
+
         return BatchSummary.builder()
                 .totalLinesProcessed(totalLinesProcessed)
                 .successCount(successCount)
                 .failedCount(failedCount)
-                .durationMs(System.currentTimeMillis() - startTime)
+                .duplicateCount(duplicateCount)
                 .build();
     }
 
+    // Every line up to lineNumber is accounted for in the counts
+    record Checkpoint(int lineNumber, int successCount, int failedCount, int duplicateCount) {
+        static final Checkpoint START = new Checkpoint(0, 0, 0, 0);
+    }
+
+    private Checkpoint loadCheckpoint(String fileDigest) {
+        if (fileDigest == null) return Checkpoint.START;
+
+        // Checkpoints of files that were never re-submitted are dropped after the TTL
+        LocalDateTime cutoff = LocalDateTime.now().minus(checkpointTtl);
+        int expired = checkpointRepository.deleteUpdatedBefore(cutoff);
+        if (expired > 0) log.info("Deleted {} expired batch checkpoint(s)", expired);
+
+        return checkpointRepository.findById(fileDigest)
+                .filter(saved -> !saved.getUpdatedAt().isBefore(cutoff))
+                .map(saved -> {
+                    log.info("Resuming file {} after line {}", fileDigest, saved.getLineNumber());
+                    return new Checkpoint(saved.getLineNumber(), saved.getSuccessCount(), saved.getFailedCount(),
+                            saved.getDuplicateCount());
+                })
+                .orElse(Checkpoint.START);
+    }
+
+    private void saveCheckpoint(String fileDigest, Checkpoint checkpoint) {
+        checkpointRepository.upsert(fileDigest, checkpoint.lineNumber(), checkpoint.successCount(),
+                checkpoint.failedCount(), checkpoint.duplicateCount(), LocalDateTime.now());
+    }
+
+    private static Consumer<Checkpoint> reportTo(BatchProgress progress) {
+        return checkpoint -> {
+            progress.recordResults(checkpoint.successCount(), checkpoint.failedCount(), checkpoint.duplicateCount());
+            progress.onChunkCommitted();
+        };
+    }
+
+    static MessageDigest newFileDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Multipart uploads are already buffered by the container, so hashing them first costs one extra read
+    private static String digest(MultipartFile file) throws IOException {
+        MessageDigest digest = newFileDigest();
+        try (InputStream input = new DigestInputStream(file.getInputStream(), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+        return CardUtils.toHex(digest.digest());
+    }
+
+    // The header and trailer are informative only: a wrong count is logged, the cards are still processed
+    void checkDeclaredRecords(LoteFileParser.Header header, LoteFileParser.Trailer trailer, int cardRecords) {
+        int declared = trailer != null ? trailer.recordCount() : header != null ? header.recordCount() : -1;
+
+        if (declared >= 0 && declared != cardRecords) {
+            log.warn("Batch {} declares {} records but contains {}",
+                    header != null ? header.batchId() : trailer.batchId(), declared, cardRecords);
+        }
+    }
+
     // Helper method to avoid code duplication (DRY) and clear memory
-    private BatchResult processBatch(List<Card> buffer) {
-        BatchResult result = flushBuffer(buffer);
-        entityManager.clear(); // CRITICAL: Detach entities to free up Hibernate memory after each batch
+    private BatchResult processBatch(List<Card> buffer, BatchPhaseTimer timer) {
+        long start = System.nanoTime();
+        BatchResult result = flushBuffer(buffer, timer);
+        if (writer != Writer.JDBC) {
+            entityManager.clear(); // CRITICAL: Detach entities to free up Hibernate memory after each batch
+        }
+        metrics.recordFlush(start);
+        timer.chunkFlushed();
+        metrics.chunkFlushed(result.savedCount, result.duplicateCount);
         return result;
     }
 
-    private boolean shouldSkip(String line) {
-        return line.isEmpty() || line.startsWith("DESAFIO-HYPERATIVA") || line.startsWith("LOTE");
+    // Remembers up to maxTrackedHashes (~64MB); later repeats are still dropped per chunk
+    Predicate<byte[]> newFileDedup() {
+        CardHashSet seen = new CardHashSet();
+        return hash -> {
+            boolean first = seen.size() < maxTrackedHashes ? seen.add(hash) : !seen.contains(hash);
+            if (!first) metrics.duplicateInFile();
+            return first;
+        };
     }
 
-    private Card parseAndValidate(String line, Set<String> batchHashes) {
-        // Validate Length
-        int start = 7;
-        int end = 26;
-        if (line.length() < start) throw new IllegalArgumentException("Line too short");
+    // Objects are only created once the number passes Luhn; firstInFile is null when the caller dedups
+    private ParsedCard parseAndValidate(byte[] field, int offset, int length, Predicate<byte[]> firstInFile,
+                                        BatchPhaseTimer timer) {
+        metrics.lineParsed();
 
-        String rawCard = line.substring(start, Math.min(line.length(), end)).trim();
-        if (rawCard.isEmpty()) throw new IllegalArgumentException("Empty card number");
+        // Validate Length
+        if (length < 0) throw new IllegalArgumentException("Line too short");
+        if (length == 0) throw new IllegalArgumentException("Empty card number");
 
-        // Validate Luhn
-        if (!CardUtils.isLuhnValid(rawCard)) throw new IllegalArgumentException("Invalid Luhn");
+        // Validate Luhn (digits only)
+        long start = System.nanoTime();
+        boolean luhnValid = CardUtils.isLuhnValid(field, offset, length);
+        long luhnEnd = metrics.recordLuhn(start);
+        timer.addLuhn(luhnEnd - start);
+        if (!luhnValid) throw new IllegalArgumentException("Invalid Luhn");
 
         // Generate Hash
-        String numberHash = CardUtils.generateHash(rawCard);
+        byte[] numberHash = CardHasher.sha256(field, offset, length);
+        timer.addHash(metrics.recordHash(luhnEnd) - luhnEnd);
 
-        // Validate Duplicates in current BATCH
-        if (batchHashes.contains(numberHash)) throw new IllegalArgumentException("Duplicate in current batch");
+        // Validate Duplicates in the whole FILE
+        if (firstInFile != null && !firstInFile.test(numberHash)) {
+            throw new DuplicateCardException("Duplicate in file");
+        }
 
-        return Card.builder()
-                .encryptedNumber(encryptionService.encrypt(rawCard))
-                .numberHash(numberHash)
-                .build();
+        return new ParsedCard(new String(field, offset, length, StandardCharsets.US_ASCII), numberHash);
+    }
+
+    // Encrypted later, once per chunk or pipeline block
+    record ParsedCard(String number, byte[] numberHash) {}
+
+    private List<Card> encryptAll(List<ParsedCard> parsed, BatchPhaseTimer timer) {
+        List<String> numbers = new ArrayList<>(parsed.size());
+        for (ParsedCard card : parsed) {
+            numbers.add(card.number());
+        }
+
+        long start = System.nanoTime();
+        List<byte[]> encrypted = encryptionService.encryptAll(numbers);
+        timer.addEncrypt(System.nanoTime() - start);
+        List<Card> cards = new ArrayList<>(parsed.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            cards.add(Card.builder()
+                    .encryptedNumber(encrypted.get(i))
+                    .numberHash(parsed.get(i).numberHash())
+                    .build());
+        }
+        return cards;
     }
 
-    private record BatchResult(int savedCount, int failedCount) {}
+    // failedCount includes duplicateCount
+    record BatchResult(int savedCount, int failedCount, int duplicateCount) {}
 
-    private BatchResult flushBuffer(List<Card> buffer) {
-        if (buffer.isEmpty()) return new BatchResult(0, 0);
+    private BatchResult flushBuffer(List<Card> buffer, BatchPhaseTimer timer) {
+        if (buffer.isEmpty()) return new BatchResult(0, 0, 0);
+
+        // One IN (...) lookup per chunk: known cards are dropped up front instead of failing the INSERT
+        long start = System.nanoTime();
+        List<Card> newCards = withoutRegisteredCards(buffer);
+        long lookupEnd = System.nanoTime();
+        timer.addLookup(lookupEnd - start);
+        int duplicates = buffer.size() - newCards.size();
+        if (newCards.isEmpty()) return new BatchResult(0, duplicates, duplicates);
 
         try {
             // Happy Path: Try to save the whole batch at once
-            return transactionTemplate.execute(status -> {
-                cardRepository.saveAll(buffer);
-                entityManager.flush();
-                return new BatchResult(buffer.size(), 0);
+            BatchResult result = transactionTemplate.execute(status -> {
+                insertAll(newCards);
+                return new BatchResult(newCards.size(), duplicates, duplicates);
             });
+            newCards.forEach(card -> cardHashFilter.add(card.getNumberHash()));
+            long insertNanos = System.nanoTime() - lookupEnd;
+            timer.addInsert(insertNanos);
+            chunkSizer.commitSucceeded(buffer.size(), insertNanos);
+            return result;
         } catch (Exception e) {
-            // Resilience Path: Something went wrong, switch to item-by-item saving
+            // Resilience Path: a concurrent upload registered one of the cards in the meantime,
+            // or something else went wrong, switch to item-by-item saving
             log.warn("Batch failed (possibly duplicates). Switching to item-by-item processing.");
-            return saveIndividually(buffer);
+            long fallbackStart = System.nanoTime();
+            timer.addInsert(fallbackStart - lookupEnd);
+            chunkSizer.commitFellBack(buffer.size());
+            BatchResult result = saveIndividually(newCards);
+            timer.addFallback(System.nanoTime() - fallbackStart);
+            metrics.fallback(result.savedCount, result.duplicateCount, result.failedCount - result.duplicateCount);
+            return new BatchResult(result.savedCount,
+                    result.failedCount + duplicates,
+                    result.duplicateCount + duplicates);
+        }
+    }
+
+    private List<Card> withoutRegisteredCards(List<Card> buffer) {
+        // Cards the filter rules out are new for sure; only the rest is looked up, each hash once
+        CardHashSet distinct = new CardHashSet(buffer.size());
+        List<byte[]> candidates = new ArrayList<>(buffer.size());
+        for (Card card : buffer) {
+            if (distinct.add(card.getNumberHash()) && cardHashFilter.mightContain(card.getNumberHash())) {
+                candidates.add(card.getNumberHash());
+            }
+        }
+
+        List<byte[]> existing = candidates.isEmpty() ? List.of() : findExistingHashes(candidates);
+        cardHashFilter.recordFalsePositives(candidates.size() - existing.size());
+
+        // Also drops repeats inside the chunk, which the in-file check stops catching past its limit
+        CardHashSet seen = new CardHashSet(buffer.size() + existing.size());
+        existing.forEach(seen::add);
+
+        List<Card> newCards = new ArrayList<>(buffer.size());
+        for (Card card : buffer) {
+            if (seen.add(card.getNumberHash())) {
+                newCards.add(card);
+            }
+        }
+        return newCards;
+    }
+
+    private List<byte[]> findExistingHashes(List<byte[]> hashes) {
+        return cardBackfillService.isHashBackfillPending()
+                ? cardRepository.findExistingLegacyHashes(hashes)
+                : cardRepository.findExistingHashes(hashes);
+    }
+
+    private void insertAll(List<Card> cards) {
+        if (writer == Writer.JDBC) {
+            // Multi-row INSERTs over JDBC: no managed entities, ids and timestamps generated client-side
+            cardBulkWriter.insertAll(cards);
+        } else {
+            cardRepository.saveAll(cards);
+            entityManager.flush();
+        }
+    }
+
+    private void insertOne(Card card) {
+        if (writer == Writer.JDBC) {
+            cardBulkWriter.insertAll(List.of(card));
+        } else {
+            cardRepository.save(card);
         }
     }
 
     private BatchResult saveIndividually(List<Card> buffer) {
         int saved = 0;
         int failed = 0;
+        int duplicates = 0;
 
         for (Card card : buffer) {
             try {
                 // New isolated transaction for each item
                 transactionTemplate.execute(status -> {
-                    cardRepository.save(card);
+                    insertOne(card);
                     return null;
                 });
+                cardHashFilter.add(card.getNumberHash());
                 saved++;
+            } catch (DataIntegrityViolationException ex) {
+                failed++;
+                duplicates++;
+                log.debug("Duplicate card {}: {}", CardUtils.toHex(card.getNumberHash()), ex.getMessage());
             } catch (Exception ex) {
                 failed++;
-                log.debug("Failed to save card {}: {}", card.getNumberHash(), ex.getMessage());
+                log.debug("Failed to save card {}: {}", CardUtils.toHex(card.getNumberHash()), ex.getMessage());
             }
         }
-        return new BatchResult(saved, failed);
+        return new BatchResult(saved, failed, duplicates);
     }
 }
\ No newline at end of file
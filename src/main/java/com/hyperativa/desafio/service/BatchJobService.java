@@ -0,0 +1,278 @@
+package com.hyperativa.desafio.service;
+
+import com.hyperativa.desafio.domain.BatchJob;
+import com.hyperativa.desafio.dto.BatchJobResponse;
+import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.repository.BatchJobRepository;
+import com.hyperativa.desafio.util.CardUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Uploads are spooled to a temp file (hashed on the way, for resuming) and run on a bounded executor.
+// Live counters come from memory while running and from batch_jobs after
+@Service
+@Slf4j
+public class BatchJobService {
+
+    private static final long PROGRESS_FLUSH_INTERVAL_MS = 1000;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final List<BatchJob.Status> UNFINISHED = List.of(BatchJob.Status.QUEUED, BatchJob.Status.RUNNING);
+
+    private final BatchCardService batchCardService;
+    private final BatchJobRepository batchJobRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final String instanceId;
+    private final Map<UUID, JobProgress> runningJobs = new ConcurrentHashMap<>();
+
+    public BatchJobService(BatchCardService batchCardService,
+                           BatchJobRepository batchJobRepository,
+                           @Value("${batch.jobs.pool-size:2}") int poolSize,
+                           @Value("${batch.jobs.queue-capacity:20}") int queueCapacity,
+                           @Value(WorkerThreads.VIRTUAL_THREADS_PROPERTY) boolean virtualThreads,
+                           @Value("${batch.jobs.instance-id:default}") String instanceId) {
+        this.batchCardService = batchCardService;
+        this.batchJobRepository = batchJobRepository;
+        this.instanceId = instanceId;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("batch-job-");
+        if (virtualThreads) {
+            // Still bounded by pool-size and queue-capacity: the limit is the database, not the threads
+            this.executor.setThreadFactory(WorkerThreads.factory("batch-job-", true));
+        }
+        this.executor.initialize();
+    }
+
+    public BatchJobResponse submit(MultipartFile file) {
+        SpooledFile spoolFile = spool(file);
+        return submit(file.getOriginalFilename(), progress -> processSpooled(spoolFile, progress),
+                () -> deleteQuietly(spoolFile.path()));
+    }
+
+    // Any other long-running batch, e.g. a server-side file import; task reports its counters to progress
+    public BatchJobResponse submit(String fileName, JobTask task) {
+        return submit(fileName, task, () -> { });
+    }
+
+    // cleanup runs once the job has ended, or right away when it cannot be queued
+    private BatchJobResponse submit(String fileName, JobTask task, Runnable cleanup) {
+        BatchJob job = null;
+        try {
+            job = batchJobRepository.save(BatchJob.builder()
+                    .fileName(fileName)
+                    .instanceId(instanceId)
+                    .status(BatchJob.Status.QUEUED)
+                    .build());
+
+            UUID jobId = job.getId();
+            executor.execute(() -> run(jobId, task, cleanup));
+            return toResponse(job, null);
+        } catch (RuntimeException e) {
+            // Saving the job failed or the executor is full: the job will never run
+            cleanup.run();
+            if (job != null) batchJobRepository.delete(job);
+            throw e;
+        }
+    }
+
+    public BatchJobResponse getJob(UUID jobId) {
+        BatchJob job = batchJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Job not found"));
+
+        return toResponse(job, runningJobs.get(jobId));
+    }
+
+    // Jobs are executed in-process, so this instance's queued or running jobs were lost with its restart.
+    // Jobs of other instances are theirs to recover: each instance needs its own batch.jobs.instance-id.
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        int interrupted = batchJobRepository.updateStatusOfInstanceJobs(instanceId, UNFINISHED,
+                BatchJob.Status.FAILED, "Interrupted by application restart");
+        if (interrupted > 0) {
+            log.warn("Marked {} interrupted batch job(s) as failed", interrupted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(UUID jobId, JobTask task, Runnable cleanup) {
+        try {
+            process(jobId, task);
+        } catch (RuntimeException e) {
+            // Loading or saving the job itself failed, e.g. the database was unreachable
+            log.error("Batch job {} could not be run", jobId, e);
+            failQuietly(jobId, e);
+        } finally {
+            runningJobs.remove(jobId);
+            cleanup.run();
+        }
+    }
+
+    private void process(UUID jobId, JobTask task) {
+        BatchJob job = batchJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalStateException("Job disappeared: " + jobId));
+        job.setStatus(BatchJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = batchJobRepository.save(job);
+
+        JobProgress progress = new JobProgress(jobId);
+        runningJobs.put(jobId, progress);
+        long startTime = System.currentTimeMillis();
+
+        try {
+            BatchSummary summary = task.run(progress);
+
+            job.setStatus(BatchJob.Status.COMPLETED);
+            job.setLinesRead(summary.getTotalLinesProcessed());
+            job.setSuccessCount(summary.getSuccessCount());
+            job.setFailedCount(summary.getFailedCount());
+            job.setDuplicateCount(summary.getDuplicateCount());
+        } catch (Exception e) {
+            log.error("Batch job {} failed", jobId, e);
+
+            job.setStatus(BatchJob.Status.FAILED);
+            job.setLinesRead(progress.getLinesRead());
+            job.setSuccessCount(progress.getSuccessCount());
+            job.setFailedCount(progress.getFailedCount());
+            job.setDuplicateCount(progress.getDuplicateCount());
+            job.setErrorMessage(truncate(String.valueOf(e.getMessage())));
+        } finally {
+            job.setDurationMs(System.currentTimeMillis() - startTime);
+            job.setFinishedAt(LocalDateTime.now());
+            batchJobRepository.save(job);
+        }
+    }
+
+    private BatchSummary processSpooled(SpooledFile spoolFile, BatchProgress progress) throws IOException {
+        try (InputStream input = Files.newInputStream(spoolFile.path())) {
+            return batchCardService.process(input, progress, spoolFile.digest());
+        }
+    }
+
+    private void failQuietly(UUID jobId, Exception cause) {
+        try {
+            batchJobRepository.updateStatusIfIn(jobId, UNFINISHED, BatchJob.Status.FAILED,
+                    truncate(String.valueOf(cause.getMessage())));
+        } catch (RuntimeException e) {
+            log.warn("Could not mark batch job {} as failed; it is failed on the next restart", jobId, e);
+        }
+    }
+
+    private BatchJobResponse toResponse(BatchJob job, BatchProgress progress) {
+        BatchJobResponse.BatchJobResponseBuilder response = BatchJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .fileName(job.getFileName())
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt());
+
+        if (progress != null) {
+            return response
+                    .linesRead(progress.getLinesRead())
+                    .successCount(progress.getSuccessCount())
+                    .failedCount(progress.getFailedCount())
+                    .duplicateCount(progress.getDuplicateCount())
+                    .linesPerSecond(progress.getLinesPerSecond())
+                    .build();
+        }
+
+        Long durationMs = job.getDurationMs();
+        response.linesRead(job.getLinesRead())
+                .successCount(job.getSuccessCount())
+                .failedCount(job.getFailedCount())
+                .duplicateCount(job.getDuplicateCount())
+                .linesPerSecond(durationMs == null || durationMs == 0 ? 0 : job.getLinesRead() * 1000d / durationMs);
+
+        if (job.getStatus() == BatchJob.Status.COMPLETED) {
+            response.summary(BatchSummary.builder()
+                    .totalLinesProcessed(job.getLinesRead())
+                    .successCount(job.getSuccessCount())
+                    .failedCount(job.getFailedCount())
+                    .duplicateCount(job.getDuplicateCount())
+                    .durationMs(durationMs == null ? 0 : durationMs)
+                    .build());
+        }
+        return response.build();
+    }
+
+    private static SpooledFile spool(MultipartFile file) {
+        try {
+            Path spoolFile = Files.createTempFile("batch-job-", ".txt");
+            MessageDigest digest = BatchCardService.newFileDigest();
+            try (InputStream input = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(input, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new SpooledFile(spoolFile, CardUtils.toHex(digest.digest()));
+        } catch (IOException e) {
+            log.error("IO Error storing upload", e);
+            throw new RuntimeException("Error storing file", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}", file, e);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @FunctionalInterface
+    public interface JobTask {
+        BatchSummary run(BatchProgress progress) throws IOException;
+    }
+
+    private record SpooledFile(Path path, String digest) {}
+
+    // Persists counters at most once per interval so a restart still shows how far the job got
+    private class JobProgress extends BatchProgress {
+
+        private final UUID jobId;
+        private long lastFlush = System.currentTimeMillis();
+
+        JobProgress(UUID jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        protected void onChunkCommitted() {
+            long now = System.currentTimeMillis();
+            if (now - lastFlush < PROGRESS_FLUSH_INTERVAL_MS) return;
+
+            lastFlush = now;
+            batchJobRepository.updateProgress(jobId, getLinesRead(), getSuccessCount(), getFailedCount(),
+                    getDuplicateCount());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.hyperativa.desafio.service;
+
+import com.hyperativa.desafio.dto.BatchTimings;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Accumulators behind BatchTimings, safe from any thread
+final class BatchPhaseTimer {
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private final LongAdder parse = new LongAdder();
+    private final LongAdder luhn = new LongAdder();
+    private final LongAdder hash = new LongAdder();
+    private final LongAdder encrypt = new LongAdder();
+    private final LongAdder lookup = new LongAdder();
+    private final LongAdder insert = new LongAdder();
+    private final LongAdder fallback = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final AtomicInteger peakBufferedCards = new AtomicInteger();
+
+    void addParse(long nanos) {
+        parse.add(nanos);
+    }
+
+    void addLuhn(long nanos) {
+        luhn.add(nanos);
+    }
+
+    void addHash(long nanos) {
+        hash.add(nanos);
+    }
+
+    void addEncrypt(long nanos) {
+        encrypt.add(nanos);
+    }
+
+    void addLookup(long nanos) {
+        lookup.add(nanos);
+    }
+
+    void addInsert(long nanos) {
+        insert.add(nanos);
+    }
+
+    void addFallback(long nanos) {
+        fallback.add(nanos);
+        fallbacks.increment();
+    }
+
+    void chunkFlushed() {
+        chunks.increment();
+    }
+
+    void observeBufferedCards(int cards) {
+        if (cards > peakBufferedCards.get()) {
+            peakBufferedCards.accumulateAndGet(cards, Math::max);
+        }
+    }
+
+    // lines excludes those skipped when resuming from a checkpoint
+    BatchTimings toTimings(int lines, long durationMs) {
+        return BatchTimings.builder()
+                .parseMs(millis(parse))
+                .luhnMs(millis(luhn))
+                .hashMs(millis(hash))
+                .encryptMs(millis(encrypt))
+                .lookupMs(millis(lookup))
+                .insertMs(millis(insert))
+                .fallbackMs(millis(fallback))
+                .chunkCount(chunks.intValue())
+                .fallbackCount(fallbacks.intValue())
+                .linesPerSecond(durationMs > 0 ? Math.round(lines * 1000.0 / durationMs * 10) / 10.0 : 0)
+                .peakBufferedCards(peakBufferedCards.get())
+                .build();
+    }
+
+    private static double millis(LongAdder nanos) {
+        return Math.round(nanos.sum() / NANOS_PER_MS * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,378 @@
+package com.hyperativa.desafio.service;
+
+import com.hyperativa.desafio.domain.Card;
+import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.util.CardBloomFilter;
+import com.hyperativa.desafio.util.LoteFileParser;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+
+// Reader thread, worker pool (parse, hash, encrypt) and one writer. Numbered blocks are written in file
+// order, so dedup, chunks and checkpoints match the sequential engine; a semaphore bounds the blocks
+@Slf4j
+final class BatchPipeline {
+
+    private static final long POLL_MILLIS = 100;
+    private static final AtomicInteger RUN_SEQUENCE = new AtomicInteger();
+    // About 1.2 MB; past it the filter fills up and more first occurrences are encrypted by the writer
+    private static final int SEEN_FILTER_CAPACITY = 1_000_000;
+
+    private final int workers;
+    private final int blockSize;
+    private final IntSupplier chunkSize;
+    private final CardParser parser;
+    private final Function<List<BatchCardService.ParsedCard>, List<Card>> encryptor;
+    private final Function<List<Card>, BatchCardService.BatchResult> flusher;
+    private final Predicate<byte[]> firstInFile;
+    private final BatchProgress progress;
+    private final Consumer<BatchCardService.Checkpoint> onChunkCommitted;
+    private final boolean virtualThreads;
+    private final BatchPhaseTimer timer;
+
+    private final Semaphore inFlight;
+    private final AtomicInteger bufferedCards = new AtomicInteger();
+    private final BlockingQueue<Block> parseQueue;
+    private final BlockingQueue<ParsedBlock> writeQueue;
+    // Hashes some worker already encrypted; the writer still decides which occurrence comes first in the file
+    private final CardBloomFilter encryptedByWorkers = CardBloomFilter.create(SEEN_FILTER_CAPACITY, 0.01);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private volatile boolean aborted;
+
+    BatchPipeline(int workers, int maxBlocksInFlight, int blockSize, IntSupplier chunkSize,
+                  CardParser parser,
+                  Function<List<BatchCardService.ParsedCard>, List<Card>> encryptor,
+                  Function<List<Card>, BatchCardService.BatchResult> flusher,
+                  Predicate<byte[]> firstInFile,
+                  BatchProgress progress,
+                  Consumer<BatchCardService.Checkpoint> onChunkCommitted,
+                  boolean virtualThreads,
+                  BatchPhaseTimer timer) {
+        this.workers = Math.max(1, workers);
+        this.blockSize = Math.max(1, blockSize);
+        this.chunkSize = chunkSize;
+        this.parser = parser;
+        this.encryptor = encryptor;
+        this.flusher = flusher;
+        this.firstInFile = firstInFile;
+        this.progress = progress;
+        this.onChunkCommitted = onChunkCommitted;
+        this.virtualThreads = virtualThreads;
+        this.timer = timer;
+
+        int capacity = Math.max(1, maxBlocksInFlight);
+        this.inFlight = new Semaphore(capacity);
+        this.parseQueue = new ArrayBlockingQueue<>(capacity + this.workers);
+        this.writeQueue = new ArrayBlockingQueue<>(capacity + this.workers);
+    }
+
+    // Starts after resumeFrom's line, from its counts
+    BatchSummary run(LoteFileParser reader, BatchCardService.Checkpoint resumeFrom) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers + 1,
+                WorkerThreads.factory("batch-pipeline-" + RUN_SEQUENCE.incrementAndGet() + "-", virtualThreads));
+        try {
+            Future<WriterTotals> writer = executor.submit(() -> writeStage(new WriterTotals(resumeFrom)));
+            for (int i = 0; i < workers; i++) {
+                executor.submit(this::parseStage);
+            }
+
+            int totalLines = readStage(reader, resumeFrom.lineNumber());
+            WriterTotals totals = awaitWriter(writer);
+
+            return BatchSummary.builder()
+                    .totalLinesProcessed(totalLines)
+                    .successCount(totals.saved)
+                    .failedCount(totals.failed)
+                    .duplicateCount(totals.duplicates)
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            abort(e);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Stage 1 (calling thread): copy the card fields of the input into numbered blocks
+    private int readStage(LoteFileParser reader, int skipThroughLine) throws IOException {
+        try {
+            return readBlocks(reader, skipThroughLine);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading file", e);
+        }
+    }
+
+    private int readBlocks(LoteFileParser reader, int skipThroughLine) throws IOException, InterruptedException {
+        long sequence = 0;
+        Block block = new Block(sequence, blockSize);
+
+        LoteFileParser.RecordType type;
+        long readStart = System.nanoTime();
+        while ((type = reader.next()) != null) {
+            if (type != LoteFileParser.RecordType.CARD || reader.lineNumber() <= skipThroughLine) continue;
+
+            block.add(reader);
+            if (block.size() == blockSize) {
+                progress.recordLinesRead(reader.lineNumber());
+                timer.addParse(System.nanoTime() - readStart);
+                submit(block);
+                block = new Block(++sequence, blockSize);
+                readStart = System.nanoTime();
+            }
+        }
+        timer.addParse(System.nanoTime() - readStart);
+
+        if (block.size() > 0) {
+            submit(block);
+        }
+        for (int i = 0; i < workers; i++) {
+            put(parseQueue, Block.END);
+        }
+        progress.recordLinesRead(reader.lineNumber());
+        return reader.lineNumber();
+    }
+
+    // Stage 2 (workers): Luhn, hash and encryption, the CPU-bound part of every line
+    private Void parseStage() throws InterruptedException {
+        try {
+            Block block;
+            while ((block = take(parseQueue)) != Block.END) {
+                List<BatchCardService.ParsedCard> parsed = new ArrayList<>(block.size());
+                int[] cardLines = new int[block.size()];
+                int[] failedLines = new int[block.size()];
+                int failed = 0;
+
+                for (int i = 0; i < block.size(); i++) {
+                    try {
+                        parsed.add(parser.parse(block.cards, i * LoteFileParser.MAX_CARD_LENGTH, block.lengths[i]));
+                        cardLines[parsed.size() - 1] = block.lineNumbers[i];
+                    } catch (Exception e) {
+                        failedLines[failed++] = block.lineNumbers[i];
+                        log.debug("Validation error line {}: {}", block.lineNumbers[i], e.getMessage());
+                    }
+                }
+                put(writeQueue, new ParsedBlock(block.sequence, parsed, encryptFirstSeen(parsed), cardLines,
+                        Arrays.copyOf(failedLines, failed)));
+            }
+            put(writeQueue, ParsedBlock.END);
+            return null;
+        } catch (RuntimeException | InterruptedException e) {
+            abort(e);
+            throw e;
+        }
+    }
+
+    // Repeats are not encrypted: null entries are cards whose hash a worker has (probably) seen before
+    private List<Card> encryptFirstSeen(List<BatchCardService.ParsedCard> parsed) {
+        List<BatchCardService.ParsedCard> unseen = new ArrayList<>(parsed.size());
+        for (BatchCardService.ParsedCard card : parsed) {
+            if (!encryptedByWorkers.mightContain(card.numberHash())) {
+                encryptedByWorkers.add(card.numberHash());
+                unseen.add(card);
+            }
+        }
+        List<Card> encrypted = unseen.isEmpty() ? List.of() : encryptor.apply(unseen);
+
+        List<Card> cards = new ArrayList<>(parsed.size());
+        int next = 0;
+        for (BatchCardService.ParsedCard card : parsed) {
+            boolean wasEncrypted = next < unseen.size() && unseen.get(next) == card;
+            cards.add(wasEncrypted ? encrypted.get(next++) : null);
+        }
+        return cards;
+    }
+
+    // Stage 3 (single writer): restore file order, drop repeated cards and flush full chunks
+    private WriterTotals writeStage(WriterTotals totals) throws InterruptedException {
+        try {
+            Map<Long, ParsedBlock> pending = new HashMap<>();
+            int targetSize = chunkSize.getAsInt();
+            List<Card> buffer = new ArrayList<>(targetSize);
+            long nextSequence = 0;
+            int finishedWorkers = 0;
+
+            while (finishedWorkers < workers) {
+                ParsedBlock parsed = take(writeQueue);
+                if (parsed == ParsedBlock.END) {
+                    finishedWorkers++;
+                    continue;
+                }
+
+                pending.put(parsed.sequence, parsed);
+                ParsedBlock next;
+                while ((next = pending.remove(nextSequence)) != null) {
+                    nextSequence++;
+                    inFlight.release();
+                    // Lines of this block that will not reach the buffer stop counting as buffered right away
+                    int dropped = next.failedLines.length;
+
+                    int failedIndex = 0;
+                    for (int i = 0; i < next.cards.size(); i++) {
+                        BatchCardService.ParsedCard parsedCard = next.parsed.get(i);
+                        int line = next.cardLines[i];
+                        while (failedIndex < next.failedLines.length && next.failedLines[failedIndex] < line) {
+                            totals.failed++;
+                            failedIndex++;
+                        }
+
+                        if (!firstInFile.test(parsedCard.numberHash())) {
+                            totals.failed++;
+                            totals.duplicates++;
+                            dropped++;
+                            log.debug("Validation error: Duplicate in file");
+                            continue;
+                        }
+                        // A later repeat or a filter false positive got the worker's encryption instead
+                        Card card = next.cards.get(i);
+                        buffer.add(card != null ? card : encryptor.apply(List.of(parsedCard)).get(0));
+
+                        if (buffer.size() >= targetSize) {
+                            totals.add(flusher.apply(buffer));
+                            bufferedCards.addAndGet(-buffer.size());
+                            buffer.clear();
+                            targetSize = chunkSize.getAsInt();
+
+                            onChunkCommitted.accept(new BatchCardService.Checkpoint(
+                                    line, totals.saved, totals.failed, totals.duplicates));
+                        }
+                    }
+                    totals.failed += next.failedLines.length - failedIndex;
+                    bufferedCards.addAndGet(-dropped);
+                }
+            }
+
+            if (!buffer.isEmpty()) {
+                totals.add(flusher.apply(buffer));
+            }
+            progress.recordResults(totals.saved, totals.failed, totals.duplicates);
+            return totals;
+        } catch (RuntimeException | InterruptedException e) {
+            abort(e);
+            throw e;
+        }
+    }
+
+    private void submit(Block block) throws InterruptedException {
+        while (!inFlight.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkAborted();
+        }
+        timer.observeBufferedCards(bufferedCards.addAndGet(block.size()));
+        put(parseQueue, block);
+    }
+
+    private WriterTotals awaitWriter(Future<WriterTotals> writer) throws IOException {
+        try {
+            return writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for batch writer", e);
+        } catch (ExecutionException e) {
+            Throwable first = failure.get();
+            throw new IllegalStateException("Batch pipeline failed", first != null ? first : e.getCause());
+        }
+    }
+
+    private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkAborted();
+        }
+    }
+
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        T item;
+        while ((item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            checkAborted();
+        }
+        return item;
+    }
+
+    // Keeps the first failure, so the other stages report its cause rather than their own cancellation
+    private void abort(Throwable e) {
+        failure.compareAndSet(null, e);
+        aborted = true;
+    }
+
+    private void checkAborted() {
+        if (aborted) throw new IllegalStateException("Batch pipeline failed", failure.get());
+    }
+
+    // Throws for invalid fields; length follows LoteFileParser.cardLength()
+    @FunctionalInterface
+    interface CardParser {
+        BatchCardService.ParsedCard parse(byte[] field, int offset, int length);
+    }
+
+    // Fixed-size slots: card i occupies MAX_CARD_LENGTH bytes at i * MAX_CARD_LENGTH
+    private static final class Block {
+        static final Block END = new Block(-1, 0);
+
+        final long sequence;
+        final int[] lineNumbers;
+        final int[] lengths;
+        final byte[] cards;
+        private int size;
+
+        Block(long sequence, int capacity) {
+            this.sequence = sequence;
+            this.lineNumbers = new int[capacity];
+            this.lengths = new int[capacity];
+            this.cards = new byte[capacity * LoteFileParser.MAX_CARD_LENGTH];
+        }
+
+        void add(LoteFileParser reader) {
+            lineNumbers[size] = reader.lineNumber();
+            lengths[size] = reader.cardLength();
+            reader.copyCard(cards, size * LoteFileParser.MAX_CARD_LENGTH);
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    // cards[i] is parsed[i] encrypted, or null; cardLines[i] is its line; failedLines are the parser's rejects
+    private record ParsedBlock(long sequence, List<BatchCardService.ParsedCard> parsed, List<Card> cards,
+                               int[] cardLines, int[] failedLines) {
+        static final ParsedBlock END = new ParsedBlock(-1, List.of(), List.of(), new int[0], new int[0]);
+    }
+
+    private static final class WriterTotals {
+        int saved;
+        int failed;
+        int duplicates;
+
+        WriterTotals(BatchCardService.Checkpoint start) {
+            saved = start.successCount();
+            failed = start.failedCount();
+            duplicates = start.duplicateCount();
+        }
+
+        void add(BatchCardService.BatchResult result) {
+            saved += result.savedCount();
+            failed += result.failedCount();
+            duplicates += result.duplicateCount();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hyperativa.desafio.service;
+
+// Each counter has a single writer, so volatile fields are enough for pollers
+public class BatchProgress {
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile int linesRead;
+    private volatile int successCount;
+    private volatile int failedCount;
+    private volatile int duplicateCount;
+
+    public void recordLinesRead(int linesRead) {
+        this.linesRead = linesRead;
+    }
+
+    public void recordResults(int successCount, int failedCount, int duplicateCount) {
+        this.successCount = successCount;
+        this.failedCount = failedCount;
+        this.duplicateCount = duplicateCount;
+    }
+
+    // Called after every committed chunk
+    protected void onChunkCommitted() {
+    }
+
+    public int getLinesRead() {
+        return linesRead;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public double getLinesPerSecond() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos <= 0 ? 0 : linesRead * 1_000_000_000d / elapsedNanos;
+    }
+}
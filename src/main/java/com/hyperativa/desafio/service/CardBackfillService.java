@@ -0,0 +1,115 @@
+package com.hyperativa.desafio.service;
+
+import db.migration.CardsRangeBackfill;
+import db.migration.V7__Backfill_cards_number_hash_bin;
+import db.migration.V9__Backfill_cards_encrypted_number_bin;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// With cards.backfill.mode=background the Flyway backfills only record themselves and run here after startup,
+// one committed range at a time with the last id kept in cards_backfills. Until a column is filled, lookups
+// go through the hex hash column every row still has; Card falls back to the Base64 ciphertext by itself
+@Service
+@Slf4j
+public class CardBackfillService {
+
+    private static final String LOAD_PROGRESS = "SELECT last_id FROM cards_backfills WHERE name = ?";
+    private static final String SAVE_PROGRESS = "INSERT INTO cards_backfills (name, last_id) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE last_id = VALUES(last_id)";
+
+    private final DataSource dataSource;
+    private final boolean background;
+    private final List<Runnable> onHashesBackfilled = new ArrayList<>();
+    private volatile boolean hashBackfillPending = true;
+
+    public CardBackfillService(DataSource dataSource,
+                               @Value("${cards.backfill.mode:migration}") String mode) {
+        this.dataSource = dataSource;
+        this.background = CardsRangeBackfill.BACKGROUND_MODE.equals(mode);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInBackground() {
+        Thread runner = new Thread(this::run, "cards-backfill");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    // True until number_hash_bin is known to be filled in every row
+    public boolean isHashBackfillPending() {
+        return hashBackfillPending;
+    }
+
+    // Runs right away if it already is
+    public synchronized void whenHashesBackfilled(Runnable action) {
+        if (hashBackfillPending) {
+            onHashesBackfilled.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    void run() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (backfill(connection, new V7__Backfill_cards_number_hash_bin())) {
+                hashesBackfilled();
+            }
+            backfill(connection, new V9__Backfill_cards_encrypted_number_bin());
+        } catch (SQLException | RuntimeException e) {
+            // Lookups keep using the legacy column; the next start resumes after the last committed range
+            log.error("Cards backfill failed", e);
+        }
+    }
+
+    private synchronized void hashesBackfilled() {
+        hashBackfillPending = false;
+        onHashesBackfilled.forEach(Runnable::run);
+        onHashesBackfilled.clear();
+    }
+
+    private boolean backfill(Connection connection, CardsRangeBackfill backfill) throws SQLException {
+        String name = backfill.column();
+        if (backfill.isPending(connection)) {
+            if (!background) {
+                log.warn("cards.{} is not filled in every row; set cards.backfill.mode=background", name);
+                return false;
+            }
+
+            long startTime = System.currentTimeMillis();
+            log.info("Backfilling cards.{}", name);
+            backfill.fill(connection, loadProgress(connection, name),
+                    rangeEnd -> saveProgress(connection, name, rangeEnd));
+            log.info("Backfilled cards.{} in {} ms", name, System.currentTimeMillis() - startTime);
+        }
+        if (background) backfill.requireValues(connection);
+        return true;
+    }
+
+    private static byte[] loadProgress(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LOAD_PROGRESS)) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : new byte[16];
+            }
+        }
+    }
+
+    private static void saveProgress(Connection connection, String name, byte[] lastId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SAVE_PROGRESS)) {
+            statement.setString(1, name);
+            statement.setBytes(2, lastId);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.hyperativa.desafio.service;
+
+import com.hyperativa.desafio.repository.CardRepository;
+import com.hyperativa.desafio.util.CardBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Bloom filter of registered card hashes, "maybe" for everything until loaded after startup. Only sees
+// this instance's inserts: fine for inserts (the unique constraint catches the rest), for searches
+// only with cards.bloom.search-enabled
+@Service
+@Slf4j
+public class CardHashFilter {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final CardRepository cardRepository;
+    private final CardBackfillService cardBackfillService;
+    private final CardBloomFilter filter;
+    private final boolean enabled;
+    private final boolean searchEnabled;
+    private volatile boolean ready;
+
+    private final Counter absent;
+    private final Counter maybe;
+    private final Counter falsePositives;
+
+    public CardHashFilter(CardRepository cardRepository,
+                          CardBackfillService cardBackfillService,
+                          MeterRegistry meterRegistry,
+                          @Value("${cards.bloom.enabled:true}") boolean enabled,
+                          @Value("${cards.bloom.search-enabled:false}") boolean searchEnabled,
+                          @Value("${cards.bloom.expected-cards:10000000}") long expectedCards,
+                          @Value("${cards.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.cardRepository = cardRepository;
+        this.cardBackfillService = cardBackfillService;
+        this.enabled = enabled;
+        this.searchEnabled = enabled && searchEnabled;
+        this.filter = enabled ? CardBloomFilter.create(expectedCards, falsePositiveRate) : null;
+
+        this.absent = Counter.builder("cards.bloom.checks").tag("result", "absent")
+                .description("Lookups answered by the filter without a database query")
+                .register(meterRegistry);
+        this.maybe = Counter.builder("cards.bloom.checks").tag("result", "maybe")
+                .description("Lookups the filter passed on to the database")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("cards.bloom.false.positives")
+                .description("Lookups passed on to the database for cards that were not registered")
+                .register(meterRegistry);
+
+        Gauge.builder("cards.bloom.false.positive.rate", this, CardHashFilter::observedFalsePositiveRate)
+                .description("Share of unregistered cards the filter failed to rule out")
+                .register(meterRegistry);
+        Gauge.builder("cards.bloom.expected.false.positive.rate", this,
+                        f -> f.filter == null ? 0 : f.filter.expectedFalsePositiveRate())
+                .description("False-positive probability predicted from the filter's current fill")
+                .register(meterRegistry);
+        Gauge.builder("cards.bloom.ready", this, f -> f.ready ? 1 : 0)
+                .description("1 once the filter holds every registered card")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (!enabled) return;
+
+        // Loaded from number_hash_bin, so only once it is filled in every row
+        cardBackfillService.whenHashesBackfilled(() -> {
+            Thread loader = new Thread(this::load, "card-hash-filter-loader");
+            loader.setDaemon(true);
+            loader.start();
+        });
+    }
+
+    // false only if certainly not registered; report database misses through recordFalsePositives
+    public boolean mightContain(byte[] numberHash) {
+        if (!ready) return true;
+
+        if (filter.mightContain(numberHash)) {
+            maybe.increment();
+            return true;
+        }
+        absent.increment();
+        return false;
+    }
+
+    public boolean isSearchEnabled() {
+        return searchEnabled;
+    }
+
+    public void recordFalsePositives(int count) {
+        if (ready && count > 0) falsePositives.increment(count);
+    }
+
+    // Called once a card is committed
+    public void add(byte[] numberHash) {
+        if (filter != null) filter.add(numberHash);
+    }
+
+    // Rebuilds from the table, for cards deleted outside the application
+    public void reload() {
+        if (!enabled) return;
+
+        ready = false;
+        filter.clear();
+        load();
+    }
+
+    void load() {
+        long startTime = System.currentTimeMillis();
+        long loaded = 0;
+        try {
+            byte[] after = new byte[0];
+            List<byte[]> page;
+            do {
+                page = cardRepository.findHashesAfter(after, LOAD_PAGE_SIZE);
+                page.forEach(filter::add);
+                loaded += page.size();
+                if (!page.isEmpty()) after = page.get(page.size() - 1);
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            ready = true;
+            log.info("Card hash filter loaded {} cards in {} ms ({} bits, {} hash functions)", loaded,
+                    System.currentTimeMillis() - startTime, filter.bitSize(), filter.hashFunctions());
+        } catch (RuntimeException e) {
+            // Stays not ready: every lookup keeps going to the database
+            log.error("Could not load the card hash filter after {} cards", loaded, e);
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double negatives = falsePositives.count() + absent.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
+    }
+}
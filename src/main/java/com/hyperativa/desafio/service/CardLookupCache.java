@@ -0,0 +1,83 @@
+package com.hyperativa.desafio.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Hash, id and creation time of registered cards (never the number), by number hash and by id.
+// Missing cards are not cached; cards.cache.enabled=false builds no cache
+@Service
+public class CardLookupCache {
+
+    private final boolean enabled;
+    private final Cache<ByteBuffer, CachedCard> byNumberHash;
+    private final Cache<UUID, CachedCard> byId;
+
+    public CardLookupCache(MeterRegistry meterRegistry,
+                           @Value("${cards.cache.enabled:true}") boolean enabled,
+                           @Value("${cards.cache.max-size:100000}") long maxSize,
+                           @Value("${cards.cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        if (!enabled) {
+            this.byNumberHash = null;
+            this.byId = null;
+            return;
+        }
+        this.byNumberHash = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byNumberHash, "cards.by-number");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "cards.by-id");
+    }
+
+    // On a miss, caches what loader finds under both keys
+    public Optional<CachedCard> getByNumberHash(byte[] numberHash, Supplier<Optional<CachedCard>> loader) {
+        if (!enabled) return loader.get();
+
+        ByteBuffer key = ByteBuffer.wrap(numberHash.clone());
+        CachedCard cached = byNumberHash.getIfPresent(key);
+        if (cached != null) return Optional.of(cached);
+
+        // Queried outside the cache: get(key, fn) runs the loader inside Caffeine's compute lock, which pins
+        // the carrier thread in the virtual-thread mode. Two concurrent misses may both query.
+        Optional<CachedCard> card = loader.get();
+        card.ifPresent(found -> cache(key, found));
+        return card;
+    }
+
+    public Optional<CachedCard> getById(UUID id, Supplier<Optional<CachedCard>> loader) {
+        if (!enabled) return loader.get();
+
+        CachedCard cached = byId.getIfPresent(id);
+        if (cached != null) return Optional.of(cached);
+
+        Optional<CachedCard> card = loader.get();
+        card.ifPresent(found -> cache(ByteBuffer.wrap(found.numberHash()), found));
+        return card;
+    }
+
+    // Called once a card is committed; cards are usually looked up right after
+    public void put(UUID id, byte[] numberHash, LocalDateTime createdAt) {
+        if (!enabled) return;
+
+        CachedCard card = new CachedCard(id, numberHash.clone(), createdAt);
+        cache(ByteBuffer.wrap(card.numberHash()), card);
+    }
+
+    private void cache(ByteBuffer numberHash, CachedCard card) {
+        byNumberHash.put(numberHash, card);
+        byId.put(card.id(), card);
+    }
+
+    public record CachedCard(UUID id, byte[] numberHash, LocalDateTime createdAt) {}
+}
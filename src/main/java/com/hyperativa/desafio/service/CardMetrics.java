@@ -0,0 +1,110 @@
+package com.hyperativa.desafio.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Meters registered once. record* takes the start nanoTime and returns the end, so consecutive
+// steps share one clock read
+@Component
+public class CardMetrics {
+
+    private final Timer luhn;
+    private final Timer hash;
+    private final Timer encrypt;
+    private final Timer decrypt;
+    private final Timer flush;
+
+    private final Counter linesParsed;
+    private final Counter saved;
+    private final Counter duplicates;
+    private final Counter fallbackChunks;
+    private final Counter fallbackSaved;
+    private final Counter fallbackDuplicates;
+    private final Counter fallbackFailed;
+
+    public CardMetrics(MeterRegistry meterRegistry) {
+        luhn = timer(meterRegistry, "cards.luhn", "Luhn check of one card number");
+        hash = timer(meterRegistry, "cards.hash", "SHA-256 of one card number");
+        encrypt = timer(meterRegistry, "cards.encrypt", "AES-GCM encryption of one card number");
+        decrypt = timer(meterRegistry, "cards.decrypt", "AES-GCM decryption of one card number");
+        flush = timer(meterRegistry, "batch.flush", "Writing one chunk of an upload to the database");
+
+        linesParsed = Counter.builder("batch.lines.parsed")
+                .description("Card lines of uploads parsed and validated")
+                .register(meterRegistry);
+        saved = Counter.builder("batch.cards.saved")
+                .description("Cards of uploads written to the database")
+                .register(meterRegistry);
+        duplicates = Counter.builder("batch.cards.duplicates")
+                .description("Cards of uploads already registered or repeated in their file")
+                .register(meterRegistry);
+        fallbackChunks = Counter.builder("batch.fallback.chunks")
+                .description("Chunks whose bulk insert failed and were retried card by card")
+                .register(meterRegistry);
+        fallbackSaved = fallbackCounter(meterRegistry, "saved");
+        fallbackDuplicates = fallbackCounter(meterRegistry, "duplicate");
+        fallbackFailed = fallbackCounter(meterRegistry, "failed");
+    }
+
+    public long recordLuhn(long startNanos) {
+        return record(luhn, startNanos);
+    }
+
+    public long recordHash(long startNanos) {
+        return record(hash, startNanos);
+    }
+
+    public long recordEncrypt(long startNanos) {
+        return record(encrypt, startNanos);
+    }
+
+    public long recordDecrypt(long startNanos) {
+        return record(decrypt, startNanos);
+    }
+
+    public long recordFlush(long startNanos) {
+        return record(flush, startNanos);
+    }
+
+    public void lineParsed() {
+        linesParsed.increment();
+    }
+
+    public void duplicateInFile() {
+        duplicates.increment();
+    }
+
+    public void chunkFlushed(int savedCount, int duplicateCount) {
+        if (savedCount > 0) saved.increment(savedCount);
+        if (duplicateCount > 0) duplicates.increment(duplicateCount);
+    }
+
+    // Also counted by chunkFlushed
+    public void fallback(int savedCount, int duplicateCount, int failedCount) {
+        fallbackChunks.increment();
+        if (savedCount > 0) fallbackSaved.increment(savedCount);
+        if (duplicateCount > 0) fallbackDuplicates.increment(duplicateCount);
+        if (failedCount > 0) fallbackFailed.increment(failedCount);
+    }
+
+    private static long record(Timer timer, long startNanos) {
+        long end = System.nanoTime();
+        timer.record(end - startNanos, TimeUnit.NANOSECONDS);
+        return end;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String description) {
+        return Timer.builder(name).description(description).register(meterRegistry);
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("batch.fallback.cards")
+                .tag("result", result)
+                .description("Cards of fallback chunks, by outcome of their individual insert")
+                .register(meterRegistry);
+    }
+}
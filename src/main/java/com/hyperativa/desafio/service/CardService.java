@@ -1,41 +1,88 @@
 package com.hyperativa.desafio.service;
 
 import com.hyperativa.desafio.domain.Card;
+import com.hyperativa.desafio.dto.BulkCardResult;
+import com.hyperativa.desafio.dto.BulkLookupResult;
 import com.hyperativa.desafio.dto.CardRequest;
 import com.hyperativa.desafio.dto.CardResponse;
 import com.hyperativa.desafio.exception.DuplicateCardException;
+import com.hyperativa.desafio.repository.CardBulkWriter;
 import com.hyperativa.desafio.repository.CardRepository;
+import com.hyperativa.desafio.util.CardHashSet;
 import com.hyperativa.desafio.util.CardUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CardService {
 
+    // Cards validated and encrypted per task; smaller requests run on the calling thread only
+    private static final int BULK_SLICE_SIZE = 64;
+    // Inputs resolved per IN (...) query in bulk lookups
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
     private final CardRepository cardRepository;
+    private final CardBulkWriter cardBulkWriter;
     private final EncryptionService encryptionService;
+    private final TransactionTemplate transactionTemplate;
+    private final CardHashFilter cardHashFilter;
+    private final CardBackfillService cardBackfillService;
+    private final CardLookupCache cardLookupCache;
+    private final CardMetrics metrics;
+
+    @Value("${cards.bulk.max-size:1000}")
+    private int maxBulkSize = 1000;
+
+    @Value("${cards.lookup.max-size:10000}")
+    private int maxLookupSize = 10_000;
 
     public CardResponse create(CardRequest request) {
         String cardNumber = request.getCardNumber();
 
         // Validate Card Number
-        if (!CardUtils.isLuhnValid(cardNumber)) {
+        long start = System.nanoTime();
+        boolean luhnValid = CardUtils.isLuhnValid(cardNumber);
+        start = metrics.recordLuhn(start);
+        if (!luhnValid) {
             throw new IllegalArgumentException("Invalid card number (Luhn check failed)");
         }
 
         // Generate SHA-256 Hash
-        String numberHash = CardUtils.generateHash(cardNumber);
+        byte[] numberHash = CardUtils.generateHashBytes(cardNumber);
+        metrics.recordHash(start);
 
-        // Check for duplicates
-        if (cardRepository.existsByNumberHash(numberHash)) {
-            throw new DuplicateCardException("Card already registered");
+        // Check for duplicates (only if the filter cannot rule the card out)
+        if (cardHashFilter.mightContain(numberHash)) {
+            boolean registered = cardBackfillService.isHashBackfillPending()
+                    ? cardRepository.existsByLegacyNumberHash(numberHash)
+                    : cardRepository.existsByNumberHash(numberHash);
+            if (registered) {
+                throw new DuplicateCardException("Card already registered");
+            }
+            cardHashFilter.recordFalsePositives(1);
         }
 
         // Encrypt the card number
-        String encryptedNumber = encryptionService.encrypt(cardNumber);
+        byte[] encryptedNumber = encryptionService.encryptToBytes(cardNumber);
 
         // Save Card entity
         Card card = Card.builder()
@@ -43,7 +90,15 @@ public class CardService {
                 .numberHash(numberHash)
                 .build();
 
-        Card savedCard = cardRepository.save(card);
+        Card savedCard;
+        try {
+            savedCard = cardRepository.save(card);
+        } catch (DataIntegrityViolationException e) {
+            // Registered concurrently since the check above
+            throw new DuplicateCardException("Card already registered");
+        }
+        cardHashFilter.add(numberHash);
+        cardLookupCache.put(savedCard.getId(), numberHash, savedCard.getCreatedAt());
 
         // Return CardResponse
         return CardResponse.builder()
@@ -52,24 +107,289 @@ public class CardService {
                 .build();
     }
 
+    // One result per card in request order; invalid or known cards do not fail the others. If the
+    // multi-row INSERT fails, each card is retried in its own transaction
+    public List<BulkCardResult> createAll(List<CardRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one card is required");
+        }
+        if (requests.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " cards per request");
+        }
+
+        int count = requests.size();
+        BulkCardResult[] results = new BulkCardResult[count];
+        Card[] cards = new Card[count];
+        LocalDateTime now = LocalDateTime.now();
+
+        int slices = (count + BULK_SLICE_SIZE - 1) / BULK_SLICE_SIZE;
+        IntStream.range(0, slices).parallel().forEach(slice -> prepare(requests, slice * BULK_SLICE_SIZE,
+                Math.min(count, (slice + 1) * BULK_SLICE_SIZE), now, results, cards));
+
+        // In request order, so the first occurrence of a repeated number is the one registered
+        CardHashSet seen = new CardHashSet(count);
+        List<byte[]> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (cards[i] == null) continue;
+            if (seen.add(cards[i].getNumberHash())) {
+                hashes.add(cards[i].getNumberHash());
+            } else {
+                results[i] = failure(i, BulkCardResult.Status.DUPLICATE, "Card repeated in request");
+                cards[i] = null;
+            }
+        }
+        if (hashes.isEmpty()) return Arrays.asList(results);
+
+        CardHashSet registered = new CardHashSet(hashes.size());
+        findRegistered(hashes).forEach(registered::add);
+
+        List<Integer> newCards = new ArrayList<>(hashes.size());
+        for (int i = 0; i < count; i++) {
+            if (cards[i] == null) continue;
+            if (registered.contains(cards[i].getNumberHash())) {
+                results[i] = failure(i, BulkCardResult.Status.DUPLICATE, "Card already registered");
+            } else {
+                newCards.add(i);
+            }
+        }
+
+        insert(newCards, cards, results);
+        return Arrays.asList(results);
+    }
+
+    // Only the hashes the filter cannot rule out are queried
+    private List<byte[]> findRegistered(List<byte[]> hashes) {
+        List<byte[]> candidates = hashes.stream().filter(cardHashFilter::mightContain).toList();
+        if (candidates.isEmpty()) return List.of();
+
+        List<byte[]> registered = cardBackfillService.isHashBackfillPending()
+                ? cardRepository.findExistingLegacyHashes(candidates)
+                : cardRepository.findExistingHashes(candidates);
+        cardHashFilter.recordFalsePositives(candidates.size() - registered.size());
+        return registered;
+    }
+
+    // Validates requests [from, to) and encrypts the valid ones with this thread's cipher
+    private void prepare(List<CardRequest> requests, int from, int to, LocalDateTime now,
+                         BulkCardResult[] results, Card[] cards) {
+        List<Integer> valid = new ArrayList<>(to - from);
+        List<String> numbers = new ArrayList<>(to - from);
+
+        for (int i = from; i < to; i++) {
+            CardRequest request = requests.get(i);
+            String cardNumber = request == null ? null : request.getCardNumber();
+
+            if (cardNumber == null || cardNumber.isBlank()) {
+                results[i] = failure(i, BulkCardResult.Status.INVALID, "Card number is required");
+            } else if (!isDigits(cardNumber)) {
+                results[i] = failure(i, BulkCardResult.Status.INVALID, "Must contain only digits");
+            } else if (!CardUtils.isLuhnValid(cardNumber)) {
+                results[i] = failure(i, BulkCardResult.Status.INVALID, "Invalid card number (Luhn check failed)");
+            } else {
+                valid.add(i);
+                numbers.add(cardNumber);
+            }
+        }
+        if (numbers.isEmpty()) return;
+
+        List<byte[]> encrypted = encryptionService.encryptAll(numbers);
+        for (int j = 0; j < valid.size(); j++) {
+            cards[valid.get(j)] = Card.builder()
+                    .id(cardBulkWriter.newId())
+                    .encryptedNumber(encrypted.get(j))
+                    .numberHash(CardUtils.generateHashBytes(numbers.get(j)))
+                    .createdAt(now)
+                    .build();
+        }
+    }
+
+    private void insert(List<Integer> indexes, Card[] cards, BulkCardResult[] results) {
+        if (indexes.isEmpty()) return;
+
+        List<Card> batch = new ArrayList<>(indexes.size());
+        indexes.forEach(i -> batch.add(cards[i]));
+        try {
+            transactionTemplate.execute(status -> cardBulkWriter.insertAll(batch));
+            batch.forEach(this::registered);
+            indexes.forEach(i -> results[i] = created(i, cards[i]));
+        } catch (Exception e) {
+            log.warn("Bulk insert failed (possibly duplicates). Switching to card-by-card inserts.");
+            for (int i : indexes) {
+                try {
+                    transactionTemplate.execute(status -> cardBulkWriter.insertAll(List.of(cards[i])));
+                    registered(cards[i]);
+                    results[i] = created(i, cards[i]);
+                } catch (DataIntegrityViolationException ex) {
+                    results[i] = failure(i, BulkCardResult.Status.DUPLICATE, "Card already registered");
+                } catch (Exception ex) {
+                    log.debug("Failed to save card {}: {}", CardUtils.toHex(cards[i].getNumberHash()),
+                            ex.getMessage());
+                    results[i] = failure(i, BulkCardResult.Status.FAILED, "Card could not be registered");
+                }
+            }
+        }
+    }
+
+    private void registered(Card card) {
+        cardHashFilter.add(card.getNumberHash());
+        cardLookupCache.put(card.getId(), card.getNumberHash(), card.getCreatedAt());
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static BulkCardResult created(int index, Card card) {
+        return BulkCardResult.builder()
+                .index(index)
+                .status(BulkCardResult.Status.CREATED)
+                .id(card.getId())
+                .createdAt(card.getCreatedAt())
+                .build();
+    }
+
+    private static BulkCardResult failure(int index, BulkCardResult.Status status, String error) {
+        return BulkCardResult.builder()
+                .index(index)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
     public CardResponse getCard(UUID id) {
-        Card card = cardRepository.findById(id)
+        CardLookupCache.CachedCard card = cardLookupCache
+                .getById(id, () -> cardRepository.findById(id).map(CardService::cached))
                 .orElseThrow(() -> new IllegalArgumentException("Card not found"));
 
         return CardResponse.builder()
+                .id(card.id())
+                .createdAt(card.createdAt())
+                .build();
+    }
+
+    // Lazily, one list per chunk in request order, each resolved by one IN (...) query. Malformed
+    // numbers are reported as not found
+    public Stream<List<BulkLookupResult>> findAllByCardNumber(List<String> cardNumbers) {
+        checkLookupSize(cardNumbers);
+        return chunkStarts(cardNumbers.size()).mapToObj(from ->
+                lookupNumbers(cardNumbers, from, Math.min(cardNumbers.size(), from + LOOKUP_CHUNK_SIZE)));
+    }
+
+    public int maxLookupSize() {
+        return maxLookupSize;
+    }
+
+    public Stream<List<BulkLookupResult>> getCards(List<UUID> ids) {
+        checkLookupSize(ids);
+        return chunkStarts(ids.size()).mapToObj(from ->
+                lookupIds(ids, from, Math.min(ids.size(), from + LOOKUP_CHUNK_SIZE)));
+    }
+
+    private void checkLookupSize(List<?> inputs) {
+        if (inputs == null || inputs.isEmpty()) {
+            throw new IllegalArgumentException("At least one card is required");
+        }
+        if (inputs.size() > maxLookupSize) {
+            throw new IllegalArgumentException("At most " + maxLookupSize + " cards per request");
+        }
+    }
+
+    private static IntStream chunkStarts(int size) {
+        return IntStream.iterate(0, from -> from < size, from -> from + LOOKUP_CHUNK_SIZE);
+    }
+
+    private List<BulkLookupResult> lookupNumbers(List<String> cardNumbers, int from, int to) {
+        byte[][] hashes = new byte[to - from][];
+        IntStream.range(from, to).parallel().forEach(i -> {
+            String cardNumber = cardNumbers.get(i);
+            if (cardNumber != null && !cardNumber.isEmpty() && isDigits(cardNumber)) {
+                hashes[i - from] = CardUtils.generateHashBytes(cardNumber);
+            }
+        });
+
+        // Each number once, so repeats are neither queried nor counted as false positives twice
+        boolean useFilter = cardHashFilter.isSearchEnabled();
+        CardHashSet distinct = new CardHashSet(hashes.length);
+        List<byte[]> candidates = Arrays.stream(hashes)
+                .filter(hash -> hash != null && distinct.add(hash) && (!useFilter || cardHashFilter.mightContain(hash)))
+                .toList();
+        Map<ByteBuffer, CardRepository.CardRef> found = new HashMap<>();
+        if (!candidates.isEmpty()) {
+            (cardBackfillService.isHashBackfillPending()
+                    ? cardRepository.findByLegacyNumberHashIn(candidates)
+                    : cardRepository.findByNumberHashIn(candidates))
+                    .forEach(card -> found.put(ByteBuffer.wrap(card.getNumberHash()), card));
+            if (useFilter) cardHashFilter.recordFalsePositives(candidates.size() - found.size());
+        }
+
+        List<BulkLookupResult> results = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            byte[] hash = hashes[i - from];
+            results.add(lookupResult(i, hash == null ? null : found.get(ByteBuffer.wrap(hash))));
+        }
+        return results;
+    }
+
+    private List<BulkLookupResult> lookupIds(List<UUID> ids, int from, int to) {
+        List<UUID> known = ids.subList(from, to).stream().filter(Objects::nonNull).toList();
+        Map<UUID, CardRepository.CardRef> found = new HashMap<>();
+        if (!known.isEmpty()) {
+            cardRepository.findByIdIn(known).forEach(card -> found.put(card.getId(), card));
+        }
+
+        List<BulkLookupResult> results = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            UUID id = ids.get(i);
+            results.add(lookupResult(i, id == null ? null : found.get(id)));
+        }
+        return results;
+    }
+
+    private static BulkLookupResult lookupResult(int index, CardRepository.CardRef card) {
+        if (card == null) {
+            return BulkLookupResult.builder().index(index).found(false).build();
+        }
+        return BulkLookupResult.builder()
+                .index(index)
+                .found(true)
                 .id(card.getId())
                 .createdAt(card.getCreatedAt())
                 .build();
     }
 
     public CardResponse findByCardNumber(String plainCardNumber) {
-        String numberHash = CardUtils.generateHash(plainCardNumber);
-        Card card = cardRepository.findByNumberHash(numberHash)
-                .orElseThrow(() -> new IllegalArgumentException("Card not found"));
+        long start = System.nanoTime();
+        byte[] numberHash = CardUtils.generateHashBytes(plainCardNumber);
+        metrics.recordHash(start);
+        boolean useFilter = cardHashFilter.isSearchEnabled();
+        if (useFilter && !cardHashFilter.mightContain(numberHash)) {
+            throw new IllegalArgumentException("Card not found");
+        }
+
+        CardLookupCache.CachedCard card = cardLookupCache
+                .getByNumberHash(numberHash, () -> findByNumberHash(numberHash).map(CardService::cached))
+                .orElseThrow(() -> {
+                    if (useFilter) cardHashFilter.recordFalsePositives(1);
+                    return new IllegalArgumentException("Card not found");
+                });
 
         return CardResponse.builder()
-                .id(card.getId())
-                .createdAt(card.getCreatedAt())
+                .id(card.id())
+                .createdAt(card.createdAt())
                 .build();
     }
+
+    private Optional<Card> findByNumberHash(byte[] numberHash) {
+        return cardBackfillService.isHashBackfillPending()
+                ? cardRepository.findByLegacyNumberHash(numberHash)
+                : cardRepository.findByNumberHash(numberHash);
+    }
+
+    private static CardLookupCache.CachedCard cached(Card card) {
+        return new CardLookupCache.CachedCard(card.getId(), card.getNumberHash(), card.getCreatedAt());
+    }
 }
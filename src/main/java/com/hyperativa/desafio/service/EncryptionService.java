@@ -1,5 +1,6 @@
 package com.hyperativa.desafio.service;
 
+import com.hyperativa.desafio.util.ReusablePool;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -8,9 +9,13 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 
+// AES-256-GCM, IV || ciphertext || tag. Ciphers and IV DRBGs are reused through ReusablePool
 @Service
 public class EncryptionService {
 
@@ -18,62 +23,119 @@ public class EncryptionService {
     private static final String TRANSFORMATION = "AES/GCM/NoPadding";
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
 
     private final SecretKey secretKey;
-    private final SecureRandom secureRandom;
+    private final CardMetrics metrics;
+    private final ReusablePool<Encryptor> encryptors = new ReusablePool<>(
+            () -> new Encryptor(newCipher(), newIvSource()), POOL_SIZE);
+    private final ReusablePool<Cipher> decryptCiphers = new ReusablePool<>(EncryptionService::newCipher, POOL_SIZE);
 
-    public EncryptionService(@Value("${security.jwt.secret}") String secretKeyStr) {
+    public EncryptionService(@Value("${security.jwt.secret}") String secretKeyStr, CardMetrics metrics) {
         byte[] keyBytes = Base64.getDecoder().decode(secretKeyStr);
         if (keyBytes.length != 32) {
             throw new IllegalArgumentException("Key must be 256 bits (32 bytes)");
         }
         this.secretKey = new SecretKeySpec(keyBytes, ALGORITHM);
-        this.secureRandom = new SecureRandom();
+        this.metrics = metrics;
     }
 
     public String encrypt(String data) {
-        try {
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            secureRandom.nextBytes(iv);
-
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, parameterSpec);
-
-            byte[] encryptedBytes = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(encryptToBytes(data));
+    }
 
-            // Concatenate IV + Ciphertext
-            byte[] finalMessage = new byte[GCM_IV_LENGTH + encryptedBytes.length];
-            System.arraycopy(iv, 0, finalMessage, 0, GCM_IV_LENGTH);
-            System.arraycopy(encryptedBytes, 0, finalMessage, GCM_IV_LENGTH, encryptedBytes.length);
+    public byte[] encryptToBytes(String data) {
+        Encryptor encryptor = encryptors.acquire();
+        try {
+            long start = System.nanoTime();
+            byte[] encrypted = encrypt(data, encryptor);
+            metrics.recordEncrypt(start);
+            return encrypted;
+        } catch (Exception e) {
+            throw new RuntimeException("Error while encrypting data", e);
+        } finally {
+            encryptors.release(encryptor);
+        }
+    }
 
-            return Base64.getEncoder().encodeToString(finalMessage);
+    // One cipher for the whole chunk, in order
+    public List<byte[]> encryptAll(List<String> data) {
+        Encryptor encryptor = encryptors.acquire();
+        List<byte[]> encrypted = new ArrayList<>(data.size());
+        try {
+            long start = System.nanoTime();
+            for (String item : data) {
+                encrypted.add(encrypt(item, encryptor));
+                start = metrics.recordEncrypt(start);
+            }
+            return encrypted;
         } catch (Exception e) {
             throw new RuntimeException("Error while encrypting data", e);
+        } finally {
+            encryptors.release(encryptor);
         }
     }
 
     public String decrypt(String encryptedData) {
+        byte[] decodedMessage;
         try {
-            byte[] decodedMessage = Base64.getDecoder().decode(encryptedData);
-
-            // Extract IV
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            System.arraycopy(decodedMessage, 0, iv, 0, GCM_IV_LENGTH);
-
-            // Extract Ciphertext
-            int encryptedSize = decodedMessage.length - GCM_IV_LENGTH;
-            byte[] encryptedBytes = new byte[encryptedSize];
-            System.arraycopy(decodedMessage, GCM_IV_LENGTH, encryptedBytes, 0, encryptedSize);
+            decodedMessage = Base64.getDecoder().decode(encryptedData);
+        } catch (IllegalArgumentException e) {
+            throw new SecurityException("Error while decrypting data", e);
+        }
+        return decrypt(decodedMessage);
+    }
 
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+    public String decrypt(byte[] decodedMessage) {
+        Cipher cipher = decryptCiphers.acquire();
+        try {
+            // IV and ciphertext are read in place, no copies
+            long start = System.nanoTime();
+            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, decodedMessage, 0, GCM_IV_LENGTH);
             cipher.init(Cipher.DECRYPT_MODE, secretKey, parameterSpec);
 
-            byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
+            byte[] decryptedBytes =
+                    cipher.doFinal(decodedMessage, GCM_IV_LENGTH, decodedMessage.length - GCM_IV_LENGTH);
+            metrics.recordDecrypt(start);
             return new String(decryptedBytes, StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new SecurityException("Error while decrypting data", e);
+        } finally {
+            decryptCiphers.release(cipher);
         }
     }
+
+    private byte[] encrypt(String data, Encryptor encryptor) throws GeneralSecurityException {
+        byte[] plain = data.getBytes(StandardCharsets.UTF_8);
+        Cipher cipher = encryptor.cipher();
+
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        encryptor.ivSource().nextBytes(iv);
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+
+        // Ciphertext and tag are written straight after the IV in the final message
+        byte[] finalMessage = new byte[GCM_IV_LENGTH + cipher.getOutputSize(plain.length)];
+        System.arraycopy(iv, 0, finalMessage, 0, GCM_IV_LENGTH);
+        cipher.doFinal(plain, 0, plain.length, finalMessage, GCM_IV_LENGTH);
+        return finalMessage;
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM not available", e);
+        }
+    }
+
+    private static SecureRandom newIvSource() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (GeneralSecurityException e) {
+            return new SecureRandom();
+        }
+    }
+
+    private record Encryptor(Cipher cipher, SecureRandom ivSource) {
+    }
 }
@@ -0,0 +1,241 @@
+package com.hyperativa.desafio.service;
+
+import com.hyperativa.desafio.dto.BatchJobResponse;
+import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.util.LoteFileParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+// Imports LOTE files under batch.import.directory (off while unset) as batch jobs. The file is memory-mapped
+// and cut into line-aligned regions, each run by the sequential engine on its own thread
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileImportService {
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+    private static final long MAX_REGION_SIZE = 1L << 30;
+    private static final AtomicInteger IMPORT_SEQUENCE = new AtomicInteger();
+
+    private final BatchCardService batchCardService;
+    private final BatchJobService batchJobService;
+
+    @Value("${batch.import.directory:}")
+    private String importDirectory;
+
+    @Value("${batch.import.workers:4}")
+    private int workers = 4;
+
+    @Value("${batch.import.region-size:64MB}")
+    private DataSize regionSize = DataSize.ofMegabytes(64);
+
+    @Value(WorkerThreads.VIRTUAL_THREADS_PROPERTY)
+    private boolean virtualThreads;
+
+    // The file is checked before the job is queued; the import itself can take far longer than a request
+    public BatchJobResponse submitImport(String fileName) {
+        Path file = resolve(fileName);
+        return batchJobService.submit(file.getFileName().toString(), progress -> importFile(file, progress));
+    }
+
+    BatchSummary importFile(Path file, BatchProgress progress) {
+        long startTime = System.currentTimeMillis();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BatchPhaseTimer timer = new BatchPhaseTimer();
+            List<RegionResult> results = processRegions(channel, split(channel), progress, timer);
+
+            BatchSummary summary = merge(results);
+            summary.setDurationMs(System.currentTimeMillis() - startTime);
+            summary.setTimings(timer.toTimings(summary.getTotalLinesProcessed(), summary.getDurationMs()));
+            log.info("Imported {}: {} lines, {} saved, {} failed in {} ms: {}", file.getFileName(),
+                    summary.getTotalLinesProcessed(), summary.getSuccessCount(), summary.getFailedCount(),
+                    summary.getDurationMs(), summary.getTimings());
+            return summary;
+
+        } catch (IOException e) {
+            log.error("IO Error importing file {}", file, e);
+            throw new RuntimeException("Error importing file", e);
+        }
+    }
+
+    private Path resolve(String fileName) {
+        if (importDirectory == null || importDirectory.isBlank()) {
+            throw new IllegalArgumentException("Local file import is not enabled");
+        }
+        try {
+            // Real paths, so neither "../" nor a symlink can leave the import directory
+            Path directory = Path.of(importDirectory).toRealPath();
+            Path file = directory.resolve(fileName).normalize();
+            if (file.startsWith(directory) && Files.isRegularFile(file)) {
+                file = file.toRealPath();
+                if (file.startsWith(directory)) return file;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Cannot resolve import file {}: {}", fileName, e.getMessage());
+        }
+        throw new IllegalArgumentException("File not found in import directory");
+    }
+
+    // Region boundaries sit right after a line terminator ('\n', '\r' or "\r\n", as in LoteFileParser), so every
+    // line belongs to exactly one region
+    List<Region> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long targetSize = Math.max(1, Math.min(regionSize.toBytes(), MAX_REGION_SIZE));
+
+        List<Region> regions = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + targetSize >= size ? size : nextLineStart(channel, start + targetSize, size);
+            regions.add(new Region(regions.size(), start, end - start));
+            start = end;
+        }
+        return regions;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from - 1;
+        boolean afterCarriageReturn = false;
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                byte b = scan.get(i);
+                if (afterCarriageReturn) return position + i + (b == '\n' ? 1 : 0);
+                if (b == '\n') return position + i + 1;
+                afterCarriageReturn = b == '\r';
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private List<RegionResult> processRegions(FileChannel channel, List<Region> regions, BatchProgress progress,
+                                              BatchPhaseTimer timer) throws IOException {
+        Predicate<byte[]> fileDedup = batchCardService.newFileDedup();
+        Predicate<byte[]> firstInFile = hash -> {
+            synchronized (fileDedup) {
+                return fileDedup.test(hash);
+            }
+        };
+
+        List<BatchProgress> regionProgress = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) {
+            regionProgress.add(new BatchProgress() {
+                @Override
+                protected void onChunkCommitted() {
+                    sumInto(progress, regionProgress);
+                }
+            });
+        }
+
+        int threads = Math.max(1, Math.min(workers, regions.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                WorkerThreads.factory("file-import-" + IMPORT_SEQUENCE.incrementAndGet() + "-", virtualThreads));
+
+        try {
+            List<Future<RegionResult>> futures = new ArrayList<>(regions.size());
+            for (Region region : regions) {
+                BatchProgress counters = regionProgress.get(region.index);
+                futures.add(executor.submit(() -> processRegion(channel, region, counters, firstInFile, timer)));
+            }
+
+            List<RegionResult> results = new ArrayList<>(regions.size());
+            for (Future<RegionResult> future : futures) {
+                results.add(future.get());
+            }
+            sumInto(progress, regionProgress);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing file", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("File import failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RegionResult processRegion(FileChannel channel, Region region, BatchProgress progress,
+                                       Predicate<byte[]> firstInFile, BatchPhaseTimer timer) throws IOException {
+        LoteFileParser parser = new LoteFileParser(
+                channel.map(FileChannel.MapMode.READ_ONLY, region.offset, region.length), region.offset == 0);
+        BatchSummary summary = batchCardService.processSequential(parser, progress, firstInFile, timer);
+
+        log.debug("Region {} ({} bytes at {}): {} lines", region.index, region.length, region.offset,
+                summary.getTotalLinesProcessed());
+        return new RegionResult(summary, parser.header(), parser.trailer(), parser.cardRecords());
+    }
+
+    // Line numbers are relative to each region, so the sums are the whole file's counters
+    private static void sumInto(BatchProgress total, List<BatchProgress> regions) {
+        synchronized (total) {
+            int lines = 0;
+            int success = 0;
+            int failed = 0;
+            int duplicates = 0;
+            for (BatchProgress region : regions) {
+                lines += region.getLinesRead();
+                success += region.getSuccessCount();
+                failed += region.getFailedCount();
+                duplicates += region.getDuplicateCount();
+            }
+            total.recordLinesRead(lines);
+            total.recordResults(success, failed, duplicates);
+            total.onChunkCommitted();
+        }
+    }
+
+    private BatchSummary merge(List<RegionResult> results) {
+        int lines = 0;
+        int success = 0;
+        int failed = 0;
+        int duplicates = 0;
+        int cardRecords = 0;
+        LoteFileParser.Header header = null;
+        LoteFileParser.Trailer trailer = null;
+
+        for (RegionResult result : results) {
+            lines += result.summary.getTotalLinesProcessed();
+            success += result.summary.getSuccessCount();
+            failed += result.summary.getFailedCount();
+            duplicates += result.summary.getDuplicateCount();
+            cardRecords += result.cardRecords;
+            if (header == null) header = result.header;
+            if (result.trailer != null) trailer = result.trailer;
+        }
+
+        batchCardService.checkDeclaredRecords(header, trailer, cardRecords);
+        return BatchSummary.builder()
+                .totalLinesProcessed(lines)
+                .successCount(success)
+                .failedCount(failed)
+                .duplicateCount(duplicates)
+                .build();
+    }
+
+    record Region(int index, long offset, long length) {}
+
+    private record RegionResult(BatchSummary summary, LoteFileParser.Header header, LoteFileParser.Trailer trailer,
+                                int cardRecords) {}
+}
@@ -0,0 +1,80 @@
+package com.hyperativa.desafio.service;
+
+import com.hyperativa.desafio.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// BCrypt checks on a small pool with a bounded queue, so a burst of logins cannot hold Tomcat threads;
+// a full queue throws LoginThrottledException
+@Service
+@Slf4j
+public class LoginService {
+
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolTaskExecutor executor;
+    private final Timer queueWait;
+
+    public LoginService(AuthenticationManager authenticationManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${auth.login.pool-size:2}") int poolSize,
+                        @Value("${auth.login.queue-capacity:50}") int queueCapacity) {
+        this.authenticationManager = authenticationManager;
+
+        // Platform threads even in virtual-thread mode: the work is CPU-bound, the pool size is the point
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("login-");
+        this.executor.initialize();
+
+        Gauge.builder("auth.login.queue.size", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Logins waiting for a password check")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Password checks in progress")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("auth.login.queue.wait")
+                .description("Time a login waited for a free worker")
+                .register(meterRegistry);
+    }
+
+    // Empty when the credentials are invalid
+    public CompletableFuture<Optional<UserDetails>> authenticate(String username, String password) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return Optional.of((UserDetails) authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(username, password)).getPrincipal());
+                } catch (AuthenticationException e) {
+                    return Optional.empty();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Login queue full, rejecting login");
+            throw new LoginThrottledException("Too many logins, please retry later");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,73 @@
+package com.hyperativa.desafio.service;
+
+import com.hyperativa.desafio.domain.RefreshToken;
+import com.hyperativa.desafio.repository.RefreshTokenRepository;
+import com.hyperativa.desafio.security.JwtService;
+import com.hyperativa.desafio.security.VerifiedToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+// Refresh tokens are single use: exchanging one deletes it and issues a new one. A signed token whose row is
+// gone was already exchanged or revoked, so presenting it again revokes every refresh token of that user
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final long refreshExpiration;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtService jwtService,
+                               @Value("${security.jwt.refresh-expiration-ms:604800000}") long refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    public String issue(UserDetails userDetails) {
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.deleteExpiredBefore(now);
+        RefreshToken refreshToken = refreshTokenRepository.save(RefreshToken.builder()
+                .username(userDetails.getUsername())
+                .expiresAt(now.plus(Duration.ofMillis(refreshExpiration)))
+                .build());
+        return jwtService.generateRefreshToken(userDetails, refreshToken.getId());
+    }
+
+    // The token's user, once the token can no longer be exchanged again; empty when it is not a live refresh token
+    public Optional<String> consume(VerifiedToken token) {
+        UUID id = refreshTokenId(token);
+        if (id == null) return Optional.empty();
+
+        if (refreshTokenRepository.deleteActive(id, LocalDateTime.now()) == 1) {
+            return Optional.of(token.subject());
+        }
+        int revoked = refreshTokenRepository.deleteByUsername(token.subject());
+        log.warn("Refresh token {} of user {} was reused; revoked {} other refresh tokens", id, token.subject(),
+                revoked);
+        return Optional.empty();
+    }
+
+    public void revoke(VerifiedToken token) {
+        UUID id = refreshTokenId(token);
+        if (id != null) refreshTokenRepository.deleteById(id);
+    }
+
+    // Tokens issued before rotation have no jti and are not accepted
+    private static UUID refreshTokenId(VerifiedToken token) {
+        if (!token.refresh() || token.subject() == null || token.id() == null) return null;
+        try {
+            return UUID.fromString(token.id());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
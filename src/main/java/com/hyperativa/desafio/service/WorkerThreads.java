@@ -0,0 +1,18 @@
+package com.hyperativa.desafio.service;
+
+import java.util.concurrent.ThreadFactory;
+
+// Virtual with spring.threads.virtual.enabled, daemon platform threads otherwise
+final class WorkerThreads {
+
+    static final String VIRTUAL_THREADS_PROPERTY = "${spring.threads.virtual.enabled:false}";
+
+    private WorkerThreads() {
+    }
+
+    static ThreadFactory factory(String prefix, boolean virtual) {
+        return virtual
+                ? Thread.ofVirtual().name(prefix, 1).factory()
+                : Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+}
@@ -0,0 +1,96 @@
+package com.hyperativa.desafio.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bit positions by double hashing of the digest's first 16 bytes; lock-free adds and lookups
+public final class CardBloomFilter {
+
+    private static final int MIN_HASH_LENGTH = 16;
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder setBits = new LongAdder();
+
+    private CardBloomFilter(long bitSize, int hashFunctions) {
+        this.words = new AtomicLongArray(Math.toIntExact((bitSize + 63) / 64));
+        this.bitSize = words.length() * 64L;
+        this.hashFunctions = hashFunctions;
+    }
+
+    // About 9.6 bits per hash at 1%
+    public static CardBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) throw new IllegalArgumentException("Expected insertions must be positive");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        long bits = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * LN2));
+        return new CardBloomFilter(bits, hashes);
+    }
+
+    public boolean mightContain(byte[] hash) {
+        long h1 = readLong(hash, 0);
+        long h2 = readLong(hash, 8);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public void add(byte[] hash) {
+        long h1 = readLong(hash, 0);
+        long h2 = readLong(hash, 8);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = index(h1, h2, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    setBits.increment();
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+    }
+
+    // Hashes added while it runs may be lost
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0);
+        }
+        setBits.reset();
+    }
+
+    // (set bits / size)^k
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.sum() / bitSize, hashFunctions);
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    private long index(long h1, long h2, int i) {
+        return ((h1 + i * h2) & Long.MAX_VALUE) % bitSize;
+    }
+
+    private static long readLong(byte[] hash, int offset) {
+        if (hash.length < MIN_HASH_LENGTH) throw new IllegalArgumentException("Hash too short");
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (hash[i] & 0xFF);
+        }
+        return value;
+    }
+}
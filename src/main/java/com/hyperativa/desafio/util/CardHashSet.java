@@ -0,0 +1,119 @@
+package com.hyperativa.desafio.util;
+
+import java.util.Arrays;
+
+// Open-addressing set of SHA-256 digests, 32 bytes per slot (8-byte fingerprint, the rest inline).
+// Not thread-safe
+public final class CardHashSet {
+
+    public static final int DIGEST_LENGTH = 32;
+
+    private static final int FINGERPRINT_LENGTH = 8;
+    private static final int REMAINDER_LENGTH = DIGEST_LENGTH - FINGERPRINT_LENGTH;
+    private static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] fingerprints;
+    private byte[] remainders;
+    private long[] occupied;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public CardHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CardHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    // false if already present
+    public boolean add(byte[] digest) {
+        if (digest.length != DIGEST_LENGTH) {
+            throw new IllegalArgumentException("Expected a " + DIGEST_LENGTH + "-byte digest");
+        }
+
+        long fingerprint = fingerprint(digest);
+        int slot = (int) fingerprint & mask;
+        while (isOccupied(slot)) {
+            if (fingerprints[slot] == fingerprint && remainderEquals(slot, digest)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        store(slot, fingerprint, digest, FINGERPRINT_LENGTH);
+        if (++size > resizeThreshold) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(byte[] digest) {
+        long fingerprint = fingerprint(digest);
+        int slot = (int) fingerprint & mask;
+        while (isOccupied(slot)) {
+            if (fingerprints[slot] == fingerprint && remainderEquals(slot, digest)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        fingerprints = new long[capacity];
+        remainders = new byte[capacity * REMAINDER_LENGTH];
+        occupied = new long[(capacity + 63) >>> 6];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void grow() {
+        long[] oldFingerprints = fingerprints;
+        byte[] oldRemainders = remainders;
+        long[] oldOccupied = occupied;
+
+        allocate(oldFingerprints.length << 1);
+        for (int oldSlot = 0; oldSlot < oldFingerprints.length; oldSlot++) {
+            if ((oldOccupied[oldSlot >>> 6] & (1L << oldSlot)) == 0) continue;
+
+            long fingerprint = oldFingerprints[oldSlot];
+            int slot = (int) fingerprint & mask;
+            while (isOccupied(slot)) {
+                slot = (slot + 1) & mask;
+            }
+            store(slot, fingerprint, oldRemainders, oldSlot * REMAINDER_LENGTH);
+        }
+    }
+
+    private void store(int slot, long fingerprint, byte[] source, int remainderOffset) {
+        fingerprints[slot] = fingerprint;
+        System.arraycopy(source, remainderOffset, remainders, slot * REMAINDER_LENGTH, REMAINDER_LENGTH);
+        occupied[slot >>> 6] |= 1L << slot;
+    }
+
+    private boolean isOccupied(int slot) {
+        return (occupied[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private boolean remainderEquals(int slot, byte[] digest) {
+        int offset = slot * REMAINDER_LENGTH;
+        return Arrays.equals(remainders, offset, offset + REMAINDER_LENGTH,
+                digest, FINGERPRINT_LENGTH, DIGEST_LENGTH);
+    }
+
+    private static long fingerprint(byte[] digest) {
+        long fingerprint = 0;
+        for (int i = 0; i < FINGERPRINT_LENGTH; i++) {
+            fingerprint = (fingerprint << 8) | (digest[i] & 0xFF);
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,82 @@
+package com.hyperativa.desafio.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// SHA-256 with reused digests; ASCII digits are hashed without an intermediate String or byte[]
+public final class CardHasher {
+
+    public static final int DIGEST_LENGTH = 32;
+
+    private static final int SCRATCH_LENGTH = 64;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ReusablePool<Hashing> HASHING = new ReusablePool<>(
+            () -> new Hashing(newDigest(), new byte[SCRATCH_LENGTH]), Runtime.getRuntime().availableProcessors() * 2);
+
+    private CardHasher() {
+    }
+
+    public static byte[] sha256(CharSequence input) {
+        int length = input.length();
+        if (length > SCRATCH_LENGTH) {
+            return sha256(input.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        Hashing hashing = HASHING.acquire();
+        try {
+            byte[] scratch = hashing.scratch();
+            for (int i = 0; i < length; i++) {
+                char c = input.charAt(i);
+                if (c > 0x7F) {
+                    return sha256(input.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                scratch[i] = (byte) c;
+            }
+            return digest(hashing.digest(), scratch, 0, length);
+        } finally {
+            HASHING.release(hashing);
+        }
+    }
+
+    public static byte[] sha256(byte[] input) {
+        return sha256(input, 0, input.length);
+    }
+
+    public static byte[] sha256(byte[] input, int offset, int length) {
+        Hashing hashing = HASHING.acquire();
+        try {
+            return digest(hashing.digest(), input, offset, length);
+        } finally {
+            HASHING.release(hashing);
+        }
+    }
+
+    // Lookup-table hex, built from Latin-1 bytes
+    public static String toHex(byte[] bytes) {
+        byte[] hex = new byte[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xFF;
+            hex[j++] = HEX_DIGITS[b >>> 4];
+            hex[j++] = HEX_DIGITS[b & 0x0F];
+        }
+        return new String(hex, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] digest(MessageDigest digest, byte[] input, int offset, int length) {
+        digest.update(input, offset, length);
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
+
+    private record Hashing(MessageDigest digest, byte[] scratch) {
+    }
+}
@@ -1,9 +1,5 @@
 package com.hyperativa.desafio.util;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
 public class CardUtils {
 	
 	private CardUtils() {
@@ -28,25 +24,35 @@ public class CardUtils {
         return (nSum % 10 == 0);
     }
 
-    public static String generateHash(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encodedhash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(encodedhash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not found", e);
+    // In place on ASCII digits; any non-digit fails
+    public static boolean isLuhnValid(byte[] digits, int offset, int length) {
+        int nSum = 0;
+        boolean isSecond = false;
+        for (int i = offset + length - 1; i >= offset; i--) {
+            int d = digits[i] - '0';
+            if (d < 0 || d > 9) return false;
+
+            if (isSecond)
+                d = d * 2;
+
+            nSum += d / 10;
+            nSum += d % 10;
+
+            isSecond = !isSecond;
         }
+        return length > 0 && nSum % 10 == 0;
     }
 
-    private static String bytesToHex(byte[] hash) {
-        StringBuilder hexString = new StringBuilder(2 * hash.length);
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
-        }
-        return hexString.toString();
+    public static String generateHash(String input) {
+        return CardHasher.toHex(CardHasher.sha256(input));
+    }
+
+    // Raw digest, as stored in cards.number_hash_bin
+    public static byte[] generateHashBytes(CharSequence input) {
+        return CardHasher.sha256(input);
+    }
+
+    public static String toHex(byte[] hash) {
+        return CardHasher.toHex(hash);
     }
 }
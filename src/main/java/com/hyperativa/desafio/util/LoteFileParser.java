@@ -0,0 +1,231 @@
+package com.hyperativa.desafio.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+// Forward-only LOTE reader on raw bytes: lines are classified in place and the card field (cols 7-25
+// after the first non-blank byte) is copied out with copyCard. Not thread-safe
+public final class LoteFileParser implements Closeable {
+
+    public static final int MAX_CARD_LENGTH = 19;
+
+    private static final int CARD_START = 7;
+    private static final int CARD_END = CARD_START + MAX_CARD_LENGTH;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] HEADER_PREFIX = "DESAFIO-HYPERATIVA".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRAILER_PREFIX = "LOTE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    public enum RecordType {
+        HEADER, CARD, TRAILER, BLANK, UNKNOWN
+    }
+
+    public record Header(String name, String date, String batchId, int recordCount) {}
+
+    public record Trailer(String batchId, int recordCount) {}
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer data;
+    private final boolean startOfFile;
+
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    private int lineNumber;
+    private int lineStart;
+    private int lineEnd;
+    private int cardOffset;
+    private int cardLength;
+    private int cardRecords;
+
+    private Header header;
+    private Trailer trailer;
+
+    public LoteFileParser(InputStream input) {
+        this(Channels.newChannel(input));
+    }
+
+    public LoteFileParser(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.data = ByteBuffer.allocate(BUFFER_SIZE);
+        this.startOfFile = true;
+    }
+
+    // Parses a line-aligned slice in place, e.g. of a mapped file; line numbers are relative to it. Only the
+    // slice at the start of the file may begin with a BOM
+    public LoteFileParser(ByteBuffer region, boolean startOfFile) {
+        this.channel = null;
+        this.data = region.slice();
+        this.startOfFile = startOfFile;
+        this.limit = data.limit();
+        this.endOfInput = true;
+    }
+
+    // null at the end of the input
+    public RecordType next() throws IOException {
+        if (!nextLine()) return null;
+        lineNumber++;
+
+        // Same as String.trim(): anything up to and including ' ' is a blank
+        int start = lineStart;
+        int end = lineEnd;
+        if (lineNumber == 1 && startOfFile && startsWith(start, end, UTF8_BOM)) start += UTF8_BOM.length;
+        while (start < end && (data.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (data.get(end - 1) & 0xFF) <= ' ') end--;
+
+        if (start == end) return RecordType.BLANK;
+        if (startsWith(start, end, HEADER_PREFIX)) {
+            header = new Header(
+                    field(start, end, 0, HEADER_PREFIX.length),
+                    field(start, end, 29, 37),
+                    field(start, end, 37, 45),
+                    number(start, end, 45, 51));
+            return RecordType.HEADER;
+        }
+        if (startsWith(start, end, TRAILER_PREFIX)) {
+            trailer = new Trailer(field(start, end, 0, 8), number(start, end, 8, 14));
+            return RecordType.TRAILER;
+        }
+        if (data.get(start) == 'C') {
+            cardRecords++;
+            locateCard(start, end);
+            return RecordType.CARD;
+        }
+        return RecordType.UNKNOWN;
+    }
+
+    // 1-based, counting every line
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    // -1 if the line ends before column 7, 0 if the field is blank
+    public int cardLength() {
+        return cardLength;
+    }
+
+    public void copyCard(byte[] destination, int offset) {
+        if (cardLength > 0) {
+            data.get(cardOffset, destination, offset, cardLength);
+        }
+    }
+
+    // C lines seen so far, valid or not
+    public int cardRecords() {
+        return cardRecords;
+    }
+
+    public Header header() {
+        return header;
+    }
+
+    public Trailer trailer() {
+        return trailer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void locateCard(int start, int end) {
+        if (end - start < CARD_START) {
+            cardLength = -1;
+            return;
+        }
+        int from = start + CARD_START;
+        int to = Math.min(end, start + CARD_END);
+        while (from < to && (data.get(from) & 0xFF) <= ' ') from++;
+        while (to > from && (data.get(to - 1) & 0xFF) <= ' ') to--;
+
+        cardOffset = from;
+        cardLength = to - from;
+    }
+
+    // Sets lineStart/lineEnd to the next line, refilling the buffer as needed. Like BufferedReader.readLine,
+    // a line ends at '\n', '\r' or "\r\n"
+    private boolean nextLine() throws IOException {
+        while (true) {
+            for (int i = position; i < limit; i++) {
+                byte b = data.get(i);
+                if (b == '\n' || b == '\r') {
+                    int next = i + 1;
+                    if (b == '\r') {
+                        // Need the next byte to tell "\r\n" from a lone '\r'
+                        if (next == limit && !endOfInput) break;
+                        if (next < limit && data.get(next) == '\n') next++;
+                    }
+                    lineStart = position;
+                    lineEnd = i;
+                    position = next;
+                    return true;
+                }
+            }
+
+            if (endOfInput) {
+                if (position == limit) return false;
+                // Last line without a trailing newline
+                lineStart = position;
+                lineEnd = limit;
+                position = limit;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    // Channel mode only: move the partial line to the front and read more after it
+    private void fill() throws IOException {
+        byte[] buffer = data.array();
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            throw new IOException("Line " + (lineNumber + 1) + " exceeds " + BUFFER_SIZE + " bytes");
+        }
+
+        data.limit(buffer.length).position(limit);
+        int read = channel.read(data);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (data.get(start + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private String field(int start, int end, int from, int to) {
+        if (end - start < to) return null;
+        byte[] bytes = new byte[to - from];
+        data.get(start + from, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII).trim();
+    }
+
+    private int number(int start, int end, int from, int to) {
+        if (end - start < to) return -1;
+        int value = 0;
+        for (int i = start + from; i < start + to; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
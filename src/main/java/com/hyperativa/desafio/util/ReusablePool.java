@@ -0,0 +1,52 @@
+package com.hyperativa.desafio.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Reuses objects that are costly to build and not thread-safe (ciphers, digests). Platform threads are
+// long-lived and keep one per thread; virtual threads live for a single task, so they borrow from a shared
+// bounded pool.
+public final class ReusablePool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> perThread;
+    private final Queue<T> pooled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+
+    public ReusablePool(Supplier<T> factory, int maxSize) {
+        this.factory = factory;
+        this.perThread = ThreadLocal.withInitial(factory);
+        this.maxSize = maxSize;
+    }
+
+    public T acquire() {
+        if (!Thread.currentThread().isVirtual()) {
+            return perThread.get();
+        }
+        T item = pooled.poll();
+        if (item == null) {
+            return factory.get();
+        }
+        size.decrementAndGet();
+        return item;
+    }
+
+    // Only pass objects taken with acquire() on this same thread, once, after the last use
+    public void release(T item) {
+        if (!Thread.currentThread().isVirtual()) {
+            return;
+        }
+        if (size.incrementAndGet() <= maxSize) {
+            pooled.offer(item);
+        } else {
+            size.decrementAndGet();
+        }
+    }
+
+    int pooledSize() {
+        return size.get();
+    }
+}
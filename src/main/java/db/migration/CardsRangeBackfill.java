@@ -0,0 +1,125 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Online backfill of the cards table: walks the primary key in small ranges and commits after each one, so
+// the table stays writable and no long-running transaction or full-table lock is taken. The UPDATE gets the
+// range bounds as its two parameters and must only touch rows it has not filled yet, so a re-run after an
+// interruption is safe. Once every row is filled the column becomes NOT NULL (online, in place).
+// With the cardsBackfillMode placeholder set to "background" the migration only records itself and
+// CardBackfillService fills the column after startup instead.
+public abstract class CardsRangeBackfill extends BaseJavaMigration {
+
+    public static final String MODE_PLACEHOLDER = "cardsBackfillMode";
+    public static final String BACKGROUND_MODE = "background";
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private static final String NEXT_RANGE_END =
+            "SELECT MAX(id) FROM (SELECT id FROM cards WHERE id > ? ORDER BY id LIMIT " + CHUNK_SIZE + ") chunk";
+    private static final String IS_NULLABLE = "SELECT IS_NULLABLE FROM information_schema.COLUMNS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'cards' AND COLUMN_NAME = ?";
+
+    private final String column;
+    private final String backfillRange;
+    private final String columnDefinition;
+
+    // columnDefinition is the column's type, without NULL or NOT NULL
+    protected CardsRangeBackfill(String column, String backfillRange, String columnDefinition) {
+        this.column = column;
+        this.backfillRange = backfillRange;
+        this.columnDefinition = columnDefinition;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        if (BACKGROUND_MODE.equals(context.getConfiguration().getPlaceholders().get(MODE_PLACEHOLDER))) {
+            return;
+        }
+        Connection connection = context.getConnection();
+        fill(connection, new byte[16], rangeEnd -> { });
+        requireValues(connection);
+    }
+
+    public String column() {
+        return column;
+    }
+
+    // Whether some row still has no value in the column
+    public boolean isPending(Connection connection) throws SQLException {
+        String firstMissing = "SELECT 1 FROM cards WHERE " + column + " IS NULL LIMIT 1";
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(firstMissing)) {
+            return rs.next();
+        }
+    }
+
+    // Ranges after rangeStart; onRange runs in each range's transaction, before its commit
+    public void fill(Connection connection, byte[] rangeStart, RangeListener onRange) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement nextRangeEnd = connection.prepareStatement(NEXT_RANGE_END);
+             PreparedStatement backfill = connection.prepareStatement(backfillRange)) {
+
+            byte[] rangeEnd;
+            while ((rangeEnd = nextRangeEnd(nextRangeEnd, rangeStart)) != null) {
+                backfill.setBytes(1, rangeStart);
+                backfill.setBytes(2, rangeEnd);
+                backfill.executeUpdate();
+                onRange.filled(rangeEnd);
+                connection.commit();
+
+                rangeStart = rangeEnd;
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Previous-version instances still insert rows without the column; the V6/V8 triggers fill it for them
+    public void requireValues(Connection connection) throws SQLException {
+        if (!isNullable(connection)) return;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE cards MODIFY " + column + " " + columnDefinition + " NOT NULL, "
+                    + "ALGORITHM=INPLACE, LOCK=NONE");
+        }
+    }
+
+    private boolean isNullable(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(IS_NULLABLE)) {
+            statement.setString(1, column);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && "YES".equals(rs.getString(1));
+            }
+        }
+    }
+
+    private static byte[] nextRangeEnd(PreparedStatement statement, byte[] rangeStart) throws SQLException {
+        statement.setBytes(1, rangeStart);
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getBytes(1) : null;
+        }
+    }
+
+    @FunctionalInterface
+    public interface RangeListener {
+        void filled(byte[] rangeEnd) throws SQLException;
+    }
+}
@@ -0,0 +1,12 @@
+package db.migration;
+
+// Fills cards.number_hash_bin for rows written before V6
+public class V7__Backfill_cards_number_hash_bin extends CardsRangeBackfill {
+
+    public V7__Backfill_cards_number_hash_bin() {
+        super("number_hash_bin",
+                "UPDATE cards SET number_hash_bin = UNHEX(number_hash) "
+                        + "WHERE id > ? AND id <= ? AND number_hash_bin IS NULL AND number_hash IS NOT NULL",
+                "BINARY(32)");
+    }
+}
@@ -0,0 +1,14 @@
+package db.migration;
+
+// Re-encodes cards.encrypted_number (Base64) into encrypted_number_bin for rows written before V8. The binary
+// column holds the same IV, ciphertext and tag, so no key is needed: the database decodes the Base64 itself.
+public class V9__Backfill_cards_encrypted_number_bin extends CardsRangeBackfill {
+
+    public V9__Backfill_cards_encrypted_number_bin() {
+        super("encrypted_number_bin",
+                "UPDATE cards SET encrypted_number_bin = FROM_BASE64(encrypted_number) "
+                        + "WHERE id > ? AND id <= ? "
+                        + "AND encrypted_number_bin IS NULL AND encrypted_number IS NOT NULL",
+                "VARBINARY(64)");
+    }
+}
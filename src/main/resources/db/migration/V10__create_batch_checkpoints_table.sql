@@ -0,0 +1,10 @@
+-- Last committed chunk of an upload, keyed by the SHA-256 of the file, so a re-submission can resume from it
+CREATE TABLE batch_checkpoints (
+    file_digest VARCHAR(64) NOT NULL,
+    line_number INT NOT NULL,
+    success_count INT NOT NULL,
+    failed_count INT NOT NULL,
+    duplicate_count INT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (file_digest)
+) ENGINE=InnoDB;
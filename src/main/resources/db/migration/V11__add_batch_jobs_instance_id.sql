@@ -0,0 +1 @@
+ALTER TABLE batch_jobs ADD COLUMN instance_id VARCHAR(64) NULL AFTER file_name;
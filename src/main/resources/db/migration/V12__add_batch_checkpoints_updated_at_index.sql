@@ -0,0 +1,2 @@
+-- Expired checkpoints are deleted by age
+CREATE INDEX idx_batch_checkpoints_updated_at ON batch_checkpoints (updated_at);
@@ -0,0 +1,8 @@
+-- Progress of the cards backfills run by the application (cards.backfill.mode=background): the last primary key
+-- of the committed ranges, so a restart resumes after it
+CREATE TABLE cards_backfills (
+    name VARCHAR(64) NOT NULL,
+    last_id BINARY(16) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
@@ -0,0 +1,10 @@
+-- Refresh tokens that can still be exchanged, by the token's jti: /auth/refresh deletes the one it is given
+-- and issues a new one, /auth/logout deletes it
+CREATE TABLE refresh_tokens (
+    id BINARY(16) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_refresh_tokens_username (username),
+    INDEX idx_refresh_tokens_expires_at (expires_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,16 @@
+CREATE TABLE batch_jobs (
+    id BINARY(16) NOT NULL,
+    file_name VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    lines_read INT NOT NULL DEFAULT 0,
+    success_count INT NOT NULL DEFAULT 0,
+    failed_count INT NOT NULL DEFAULT 0,
+    duration_ms BIGINT,
+    error_message VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_batch_jobs_status ON batch_jobs (status);
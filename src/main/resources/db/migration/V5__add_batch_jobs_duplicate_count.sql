@@ -0,0 +1 @@
+ALTER TABLE batch_jobs ADD COLUMN duplicate_count INT NOT NULL DEFAULT 0 AFTER failed_count;
@@ -0,0 +1,12 @@
+-- Expand phase of the binary hash storage: the SHA-256 digest is kept as 32 raw bytes instead of 64 hex chars.
+-- Both versions keep writing number_hash (still NOT NULL), so either can look cards up during a rolling deploy
+-- or a background backfill; the contract migration drops it (and the trigger) once every instance runs the
+-- new version. number_hash_bin becomes NOT NULL once V7 (or the background backfill) has filled it.
+ALTER TABLE cards
+    ADD COLUMN number_hash_bin BINARY(32) NULL AFTER number_hash,
+    ADD CONSTRAINT uc_cards_number_hash_bin UNIQUE (number_hash_bin);
+
+-- Rows inserted by previous-version instances during a rolling deploy get their binary hash from the database.
+-- With binary logging on (the MySQL 8 default), creating a trigger needs SUPER or log_bin_trust_function_creators=1
+CREATE TRIGGER trg_cards_number_hash_bin BEFORE INSERT ON cards
+FOR EACH ROW SET NEW.number_hash_bin = COALESCE(NEW.number_hash_bin, UNHEX(NEW.number_hash));
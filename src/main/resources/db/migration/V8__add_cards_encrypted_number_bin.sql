@@ -0,0 +1,12 @@
+-- Expand phase of the binary ciphertext storage: IV || ciphertext || tag is kept as raw bytes (44 bytes for a
+-- 16-digit card) instead of its 60-char Base64 text. Both versions keep writing encrypted_number (still
+-- NOT NULL); the contract migration drops it (and the trigger) once every instance runs the new version.
+-- encrypted_number_bin becomes NOT NULL once V9 (or the background backfill) has filled it.
+ALTER TABLE cards
+    ADD COLUMN encrypted_number_bin VARBINARY(64) NULL AFTER encrypted_number;
+
+-- Rows inserted by previous-version instances during a rolling deploy get their binary ciphertext from the database.
+-- Like V6, needs SUPER or log_bin_trust_function_creators=1 when binary logging is on
+CREATE TRIGGER trg_cards_encrypted_number_bin BEFORE INSERT ON cards
+FOR EACH ROW FOLLOWS trg_cards_number_hash_bin
+SET NEW.encrypted_number_bin = COALESCE(NEW.encrypted_number_bin, FROM_BASE64(NEW.encrypted_number));
@@ -0,0 +1,54 @@
+package com.hyperativa.desafio.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+class ConnectionLimitingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final ConnectionLimitingDataSource dataSource =
+            new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+
+    @Test
+    void getConnection_ShouldTimeOut_UntilTheHeldConnectionIsClosed() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        Connection first = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+
+        Connection second = dataSource.getConnection();
+        assertSame(connection, ((ConnectionProxy) second).getTargetConnection());
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void getConnection_ShouldReturnThePermit_WhenTheTargetFails() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
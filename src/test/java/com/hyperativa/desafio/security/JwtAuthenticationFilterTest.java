@@ -0,0 +1,108 @@
+package com.hyperativa.desafio.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.hyperativa.desafio.domain.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+
+    private final User user = User.builder().username("admin").password("hash").role("ADMIN").build();
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 3600000L, 86400000L);
+
+        UserPrincipalCache principalCache = new UserPrincipalCache(userDetailsService, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(1));
+        filter = new JwtAuthenticationFilter(jwtService, principalCache, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAuthenticateFromRolesClaim_WithoutLoadingUser() throws Exception {
+        Authentication authentication = authenticate(jwtService.generateToken(user));
+
+        assertNotNull(authentication);
+        assertEquals("admin", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN"), authorities(authentication));
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void shouldLoadUserOnce_WhenTokenHasNoRolesClaim() throws Exception {
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(user);
+        String token = jwtService.generateToken(Map.of(), user);
+
+        authenticate(token);
+        SecurityContextHolder.clearContext();
+        Authentication authentication = authenticate(token);
+
+        assertEquals(List.of("ROLE_ADMIN"), authorities(authentication));
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+    }
+
+    @Test
+    void shouldNotAuthenticate_WhenTokenIsTampered() throws Exception {
+        String token = jwtService.generateToken(user);
+
+        assertNull(authenticate(token.substring(0, token.length() - 2) + "xx"));
+    }
+
+    @Test
+    void shouldNotAuthenticate_WithRefreshToken() throws Exception {
+        assertNull(authenticate(jwtService.generateRefreshToken(user, UUID.randomUUID())));
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static List<String> authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -2,13 +2,18 @@ package com.hyperativa.desafio.security;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,9 +23,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -38,9 +43,7 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService();
-        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
-        ReflectionTestUtils.setField(jwtService, "jwtExpiration", EXPIRATION);
+        jwtService = new JwtService(SECRET, EXPIRATION, EXPIRATION * 24);
     }
 
     @Test
@@ -89,6 +92,42 @@ class JwtServiceTest {
         assertEquals("testuser", jwtService.extractUsername(token));
     }
 
+    @Test
+    void shouldVerifyTokenInOneCall() {
+        when(userDetails.getUsername()).thenReturn("testuser");
+        Collection<? extends GrantedAuthority> authorities = Collections
+                .singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        when(userDetails.getAuthorities()).thenReturn((Collection) authorities);
+
+        VerifiedToken token = jwtService.verify(jwtService.generateToken(userDetails));
+
+        assertEquals("testuser", token.subject());
+        assertEquals(List.of("ROLE_ADMIN"), token.roles());
+        assertTrue(token.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        when(userDetails.getUsername()).thenReturn("testuser");
+        String token = new JwtService(SECRET, -1000, -1000).generateToken(Map.of(), userDetails);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void shouldMarkRefreshTokens() {
+        when(userDetails.getUsername()).thenReturn("testuser");
+
+        UUID tokenId = UUID.randomUUID();
+
+        VerifiedToken token = jwtService.verify(jwtService.generateRefreshToken(userDetails, tokenId));
+
+        assertEquals("testuser", token.subject());
+        assertTrue(token.refresh());
+        assertNull(token.roles());
+        assertEquals(tokenId.toString(), token.id());
+    }
+
     private Key getSignInKey() {
         byte[] keyBytes = Decoders.BASE64.decode(SECRET);
         return Keys.hmacShaKeyFor(keyBytes);
@@ -0,0 +1,84 @@
+package com.hyperativa.desafio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveChunkSizerTest {
+
+    private static final long TARGET_NANOS = Duration.ofMillis(200).toNanos();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveChunkSizer chunkSizer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        chunkSizer = new AdaptiveChunkSizer(meterRegistry, true, 400, 50, 1000, Duration.ofMillis(200));
+    }
+
+    @Test
+    void commitSucceeded_ShouldGrowUpToMaxSize_WhenFullChunksCommitFast() {
+        chunkSizer.commitSucceeded(400, TARGET_NANOS / 4);
+        assertEquals(500, chunkSizer.chunkSize());
+
+        for (int i = 0; i < 10; i++) {
+            chunkSizer.commitSucceeded(chunkSizer.chunkSize(), TARGET_NANOS / 4);
+        }
+        assertEquals(1000, chunkSizer.chunkSize());
+        assertEquals(1000, meterRegistry.get("batch.chunk.size").gauge().value());
+        assertEquals(5, meterRegistry.get("batch.chunk.resizes").tag("reason", "fast_commit").counter().count());
+    }
+
+    @Test
+    void commitSucceeded_ShouldKeepSize_WhenPartialChunkCommitsFast() {
+        chunkSizer.commitSucceeded(30, TARGET_NANOS / 4);
+
+        assertEquals(400, chunkSizer.chunkSize());
+    }
+
+    @Test
+    void commitSucceeded_ShouldShrinkInProportion_WhenCommitIsSlow() {
+        chunkSizer.commitSucceeded(400, TARGET_NANOS * 4 / 3);
+        assertEquals(300, chunkSizer.chunkSize());
+
+        // Never more than half at once
+        chunkSizer.commitSucceeded(300, TARGET_NANOS * 10);
+        assertEquals(150, chunkSizer.chunkSize());
+        assertEquals(2, meterRegistry.get("batch.chunk.resizes").tag("reason", "slow_commit").counter().count());
+    }
+
+    @Test
+    void commitFellBack_ShouldHalveDownToMinSize() {
+        chunkSizer.commitFellBack(400);
+        assertEquals(200, chunkSizer.chunkSize());
+
+        for (int i = 0; i < 5; i++) {
+            chunkSizer.commitFellBack(chunkSizer.chunkSize());
+        }
+        assertEquals(50, chunkSizer.chunkSize());
+        assertEquals(3, meterRegistry.get("batch.chunk.resizes").tag("reason", "fallback").counter().count());
+    }
+
+    @Test
+    void chunkSize_ShouldStayFixed_WhenNotAdaptive() {
+        chunkSizer = new AdaptiveChunkSizer(new SimpleMeterRegistry(), false, 400, 50, 1000, Duration.ofMillis(200));
+
+        chunkSizer.commitFellBack(400);
+        chunkSizer.commitSucceeded(400, TARGET_NANOS / 4);
+
+        assertEquals(400, chunkSizer.chunkSize());
+    }
+
+    @Test
+    void constructor_ShouldRejectInvertedBounds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveChunkSizer(meterRegistry, true, 400, 500, 100, Duration.ofMillis(200)));
+    }
+}
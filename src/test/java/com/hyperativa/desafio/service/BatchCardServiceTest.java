@@ -1,29 +1,61 @@
 package com.hyperativa.desafio.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 
+import com.hyperativa.desafio.domain.BatchCheckpoint;
 import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.dto.BatchTimings;
+import com.hyperativa.desafio.exception.UploadTooLargeException;
+import com.hyperativa.desafio.repository.BatchCheckpointRepository;
+import com.hyperativa.desafio.repository.CardBulkWriter;
 import com.hyperativa.desafio.repository.CardRepository;
+import com.hyperativa.desafio.util.CardUtils;
 
 import jakarta.persistence.EntityManager;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class BatchCardServiceTest {
 
@@ -33,15 +65,42 @@ class BatchCardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private CardBulkWriter cardBulkWriter;
+
     @Mock
     private EncryptionService encryptionService;
 
     @Mock
     private TransactionTemplate transactionTemplate;
 
+    @Mock
+    private BatchCheckpointRepository checkpointRepository;
+
     @Mock
     private EntityManager entityManager;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CardMetrics metrics = new CardMetrics(meterRegistry);
+
+    // Fixed size, so chunk boundaries do not depend on how fast the mocks commit
+    @Spy
+    private AdaptiveChunkSizer chunkSizer =
+            new AdaptiveChunkSizer(meterRegistry, false, 500, 50, 5000, Duration.ofMillis(250));
+
+    @Mock
+    private CardHashFilter cardHashFilter;
+
+    @Mock
+    private CardBackfillService cardBackfillService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cardHashFilter.mightContain(any())).thenReturn(true);
+    }
+
     @Test
     void processFile_ShouldSaveBatch_WhenContentIsValid() {
         String validCard = "1234567812345670";
@@ -59,7 +118,7 @@ class BatchCardServiceTest {
                 "text/plain",
                 fileContent.toString().getBytes());
 
-        when(encryptionService.encrypt(anyString())).thenReturn("encrypted");
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
 
         when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
             TransactionCallback<?> callback = invocation.getArgument(0);
@@ -101,4 +160,338 @@ class BatchCardServiceTest {
 
         verify(cardRepository, never()).saveAll(anyList());
     }
+
+    @Test
+    void processFile_ShouldSkipRegisteredCards_WithoutItemByItemFallback() {
+        StringBuilder fileContent = new StringBuilder();
+        fileContent.append("DESAFIO-HYPERATIVA\n");
+        fileContent.append("C      1234567812345670           \n");
+        fileContent.append("C      4111111111111111           \n");
+        fileContent.append("C      4111111111111111           \n");
+        fileContent.append("LOTE\n");
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(cardRepository.findExistingHashes(anyList()))
+                .thenReturn(List.of(CardUtils.generateHashBytes("1234567812345670")));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        BatchSummary summary = batchCardService.processFile(fileOf(fileContent));
+
+        assertEquals(1, summary.getSuccessCount());
+        assertEquals(2, summary.getFailedCount());
+        assertEquals(2, summary.getDuplicateCount());
+
+        verify(cardRepository).findExistingHashes(anyList());
+        verify(cardRepository, never()).save(any());
+
+        // One registered card and one repeat in the file, counted where each is caught
+        assertEquals(3, meterRegistry.get("batch.lines.parsed").counter().count());
+        assertEquals(1, meterRegistry.get("batch.cards.saved").counter().count());
+        assertEquals(2, meterRegistry.get("batch.cards.duplicates").counter().count());
+        assertEquals(3, meterRegistry.get("cards.luhn").timer().count());
+        assertEquals(1, meterRegistry.get("batch.flush").timer().count());
+    }
+
+    @Test
+    void processFile_ShouldReportFallbackToChunkSizer_WhenBulkInsertFails() {
+        ReflectionTestUtils.setField(batchCardService, "writer", BatchCardService.Writer.JDBC);
+
+        StringBuilder fileContent = new StringBuilder();
+        fileContent.append("C      1234567812345670           \n");
+        fileContent.append("C      4111111111111111           \n");
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        doThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .when(cardBulkWriter).insertAll(argThat(cards -> cards.size() > 1));
+
+        BatchSummary summary = batchCardService.processFile(fileOf(fileContent));
+
+        assertEquals(2, summary.getSuccessCount());
+        verify(chunkSizer).commitFellBack(2);
+        verify(chunkSizer, never()).commitSucceeded(anyInt(), anyLong());
+        assertEquals(1, summary.getTimings().getFallbackCount());
+    }
+
+    @Test
+    void processFile_ShouldCatchDuplicates_AcrossChunks() {
+        StringBuilder fileContent = new StringBuilder();
+        fileContent.append("DESAFIO-HYPERATIVA\n");
+        for (int i = 0; i < 600; i++) {
+            fileContent.append("C      ").append(luhnCard(i)).append("\n");
+        }
+        fileContent.append("C      ").append(luhnCard(0)).append("\n");
+        fileContent.append("LOTE\n");
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        BatchSummary summary = batchCardService.processFile(fileOf(fileContent));
+
+        assertEquals(600, summary.getSuccessCount());
+        assertEquals(1, summary.getDuplicateCount());
+        verify(cardRepository, never()).save(any());
+
+        BatchTimings timings = summary.getTimings();
+        assertEquals(2, timings.getChunkCount());
+        assertEquals(0, timings.getFallbackCount());
+        assertEquals(500, timings.getPeakBufferedCards());
+    }
+
+    @Test
+    void processStream_ShouldDropRepeatsPerChunk_WhenInFileTrackingLimitIsReached() {
+        ReflectionTestUtils.setField(batchCardService, "maxTrackedHashes", 1);
+
+        StringBuilder fileContent = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            fileContent.append("C      ").append(luhnCard(i)).append("\n");
+        }
+        fileContent.append("C      ").append(luhnCard(5)).append("\n");
+        fileContent.append("C      ").append(luhnCard(6)).append("\n");
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        BatchSummary summary = batchCardService.processStream(
+                new ByteArrayInputStream(fileContent.toString().getBytes()));
+
+        assertEquals(12, summary.getTotalLinesProcessed());
+        assertEquals(10, summary.getSuccessCount());
+        assertEquals(2, summary.getDuplicateCount());
+        verify(cardRepository, never()).save(any());
+        // The repeats are looked up, and counted as filter false positives, once
+        verify(cardRepository).findExistingHashes(argThat(hashes -> hashes.size() == 10));
+        verify(cardHashFilter).recordFalsePositives(10);
+    }
+
+    @Test
+    void processStream_ShouldRejectBody_WhenItExceedsMaxSize() {
+        ReflectionTestUtils.setField(batchCardService, "streamMaxSize", DataSize.ofBytes(30));
+
+        String body = "C      1234567812345670\nC      4111111111111111\n";
+
+        assertThrows(UploadTooLargeException.class,
+                () -> batchCardService.processStream(new ByteArrayInputStream(body.getBytes())));
+    }
+
+    @Test
+    void processStream_ShouldReject_WhenTooManyStreamsAreRunning() {
+        ReflectionTestUtils.setField(batchCardService, "streamMaxConcurrent", 0);
+
+        assertThrows(RejectedExecutionException.class,
+                () -> batchCardService.processStream(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void processFile_ShouldUseBulkWriter_WhenJdbcWriterIsConfigured() {
+        ReflectionTestUtils.setField(batchCardService, "writer", BatchCardService.Writer.JDBC);
+
+        StringBuilder fileContent = new StringBuilder();
+        fileContent.append("DESAFIO-HYPERATIVA\n");
+        fileContent.append("C      1234567812345670           \n");
+        fileContent.append("C      4111111111111111           \n");
+        fileContent.append("LOTE\n");
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        BatchSummary summary = batchCardService.processFile(fileOf(fileContent));
+
+        assertEquals(2, summary.getSuccessCount());
+        assertEquals(0, summary.getFailedCount());
+
+        verify(cardBulkWriter).insertAll(anyList());
+        verify(cardRepository, never()).saveAll(anyList());
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    void processFile_ShouldReportSameCounts_WhenPipelinedEngineIsUsed() {
+        StringBuilder fileContent = mixedFile();
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        List<List<Integer>> checkpoints = recordCheckpoints();
+
+        BatchSummary sequential = batchCardService.processFile(fileOf(fileContent));
+        List<List<Integer>> sequentialCheckpoints = new ArrayList<>(checkpoints);
+        checkpoints.clear();
+
+        ReflectionTestUtils.setField(batchCardService, "engine", BatchCardService.Engine.PIPELINED);
+        ReflectionTestUtils.setField(batchCardService, "pipelineWorkers", 3);
+        ReflectionTestUtils.setField(batchCardService, "pipelineBlockSize", 7);
+        ReflectionTestUtils.setField(batchCardService, "pipelineMaxBlocksInFlight", 4);
+
+        BatchSummary pipelined = batchCardService.processFile(fileOf(fileContent));
+
+        assertEquals(1202, pipelined.getTotalLinesProcessed());
+        assertEquals(sequential.getTotalLinesProcessed(), pipelined.getTotalLinesProcessed());
+        assertEquals(sequential.getSuccessCount(), pipelined.getSuccessCount());
+        assertEquals(sequential.getFailedCount(), pipelined.getFailedCount());
+        assertEquals(sequential.getDuplicateCount(), pipelined.getDuplicateCount());
+        assertEquals(sequential.getTimings().getChunkCount(), pipelined.getTimings().getChunkCount());
+        // Both engines checkpoint the same lines with the same counts
+        assertFalse(sequentialCheckpoints.isEmpty());
+        assertEquals(sequentialCheckpoints, checkpoints);
+    }
+
+    @Test
+    void processFile_ShouldEncryptEachCardOnce_WhenPipelinedEngineIsUsed() {
+        AtomicInteger encrypted = new AtomicInteger();
+        when(encryptionService.encryptAll(anyList())).thenAnswer(invocation -> {
+            encrypted.addAndGet(invocation.<List<?>>getArgument(0).size());
+            return encryptedList(invocation);
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        ReflectionTestUtils.setField(batchCardService, "engine", BatchCardService.Engine.PIPELINED);
+        ReflectionTestUtils.setField(batchCardService, "pipelineWorkers", 3);
+        ReflectionTestUtils.setField(batchCardService, "pipelineBlockSize", 7);
+
+        BatchSummary summary = batchCardService.processFile(fileOf(mixedFile()));
+
+        assertEquals(summary.getSuccessCount(), encrypted.get());
+    }
+
+    @Test
+    void processFile_ShouldReportWorkerFailure_WhenPipelineAborts() {
+        IllegalStateException workerFailure = new IllegalStateException("Cipher unavailable");
+        when(encryptionService.encryptAll(anyList())).thenThrow(workerFailure);
+        ReflectionTestUtils.setField(batchCardService, "engine", BatchCardService.Engine.PIPELINED);
+        ReflectionTestUtils.setField(batchCardService, "pipelineBlockSize", 7);
+        ReflectionTestUtils.setField(batchCardService, "pipelineMaxBlocksInFlight", 1);
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> batchCardService.processFile(fileOf(mixedFile())));
+
+        assertSame(workerFailure, thrown.getCause());
+    }
+
+    @Test
+    void processFile_ShouldResumeFromCheckpoint_WhenSameFileIsSubmittedAgain() {
+        StringBuilder fileContent = mixedFile();
+        AtomicInteger inserted = new AtomicInteger();
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        when(cardRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            inserted.addAndGet(invocation.<List<?>>getArgument(0).size());
+            return invocation.getArgument(0);
+        });
+        List<List<Integer>> checkpoints = recordCheckpoints();
+
+        BatchSummary complete = batchCardService.processFile(fileOf(fileContent));
+        List<Integer> first = checkpoints.get(0);
+
+        // Second submission: the first chunk is already committed
+        when(checkpointRepository.findById(anyString())).thenReturn(Optional.of(BatchCheckpoint.builder()
+                .lineNumber(first.get(0))
+                .successCount(first.get(1))
+                .failedCount(first.get(2))
+                .duplicateCount(first.get(3))
+                .updatedAt(LocalDateTime.now().minusHours(1))
+                .build()));
+        ReflectionTestUtils.setField(batchCardService, "engine", BatchCardService.Engine.PIPELINED);
+        inserted.set(0);
+
+        BatchSummary resumed = batchCardService.processFile(fileOf(fileContent));
+
+        assertEquals(complete.getTotalLinesProcessed(), resumed.getTotalLinesProcessed());
+        assertEquals(complete.getSuccessCount(), resumed.getSuccessCount());
+        assertEquals(complete.getFailedCount(), resumed.getFailedCount());
+        assertEquals(complete.getDuplicateCount(), resumed.getDuplicateCount());
+        assertEquals(complete.getSuccessCount() - first.get(1), inserted.get());
+        verify(checkpointRepository, atLeastOnce()).deleteByFileDigest(anyString());
+    }
+
+    @Test
+    void processFile_ShouldStartOver_WhenCheckpointHasExpired() {
+        when(encryptionService.encryptAll(anyList())).thenAnswer(BatchCardServiceTest::encryptedList);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        BatchSummary complete = batchCardService.processFile(fileOf(mixedFile()));
+
+        // Left by a run that failed more than the 7 day TTL ago
+        when(checkpointRepository.findById(anyString())).thenReturn(Optional.of(BatchCheckpoint.builder()
+                .lineNumber(600)
+                .successCount(500)
+                .updatedAt(LocalDateTime.now().minusDays(8))
+                .build()));
+
+        BatchSummary summary = batchCardService.processFile(fileOf(mixedFile()));
+
+        assertEquals(complete.getSuccessCount(), summary.getSuccessCount());
+        assertEquals(complete.getFailedCount(), summary.getFailedCount());
+        verify(checkpointRepository, times(2)).deleteUpdatedBefore(any());
+    }
+
+    // 1200 cards: every 10th line repeats the previous card, every 7th line breaks the Luhn check
+    private static StringBuilder mixedFile() {
+        StringBuilder fileContent = new StringBuilder();
+        fileContent.append("DESAFIO-HYPERATIVA           20180524LOTE0001001200\n");
+        for (int i = 0; i < 1200; i++) {
+            String card = luhnCard(i % 10 == 9 ? i - 1 : i);
+            if (i % 7 == 6) card = card.substring(0, 15) + ((card.charAt(15) - '0' + 1) % 10);
+            fileContent.append("C").append(String.format("%-6d", i)).append(card).append("\n");
+        }
+        fileContent.append("LOTE0001001200\n");
+        return fileContent;
+    }
+
+    // Each entry is [lineNumber, successCount, failedCount, duplicateCount]
+    private List<List<Integer>> recordCheckpoints() {
+        List<List<Integer>> checkpoints = new ArrayList<>();
+        when(checkpointRepository.upsert(anyString(), anyInt(), anyInt(), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    checkpoints.add(List.of(invocation.getArgument(1), invocation.getArgument(2),
+                            invocation.getArgument(3), invocation.getArgument(4)));
+                    return 1;
+                });
+        return checkpoints;
+    }
+
+    private static List<byte[]> encryptedList(InvocationOnMock invocation) {
+        List<String> numbers = invocation.getArgument(0);
+        return numbers.stream().map(number -> new byte[44]).toList();
+    }
+
+    private static MockMultipartFile fileOf(CharSequence content) {
+        return new MockMultipartFile("file", "test.txt", "text/plain", content.toString().getBytes());
+    }
+
+    static String luhnCard(int seed) {
+        String body = String.format("411111%09d", seed);
+        int sum = 0;
+        for (int i = body.length() - 1, pos = 0; i >= 0; i--, pos++) {
+            int d = body.charAt(i) - '0';
+            if (pos % 2 == 0) d *= 2;
+            sum += d / 10 + d % 10;
+        }
+        return body + (10 - sum % 10) % 10;
+    }
 }
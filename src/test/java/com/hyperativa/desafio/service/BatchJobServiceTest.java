@@ -0,0 +1,187 @@
+package com.hyperativa.desafio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.hyperativa.desafio.domain.BatchJob;
+import com.hyperativa.desafio.dto.BatchJobResponse;
+import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.repository.BatchJobRepository;
+import com.hyperativa.desafio.util.CardUtils;
+
+@ExtendWith(MockitoExtension.class)
+class BatchJobServiceTest {
+
+    private BatchJobService batchJobService;
+
+    @Mock
+    private BatchCardService batchCardService;
+
+    @Mock
+    private BatchJobRepository batchJobRepository;
+
+    @BeforeEach
+    void setUp() {
+        batchJobService = new BatchJobService(batchCardService, batchJobRepository, 1, 1, false, "node-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchJobService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldReturnQueuedJob_AndCompleteInBackground() throws Exception {
+        BatchJob job = BatchJob.builder()
+                .id(UUID.randomUUID())
+                .status(BatchJob.Status.QUEUED)
+                .build();
+
+        // Like JPA, the background thread works on its own instance, not the one returned to the caller
+        when(batchJobRepository.save(any(BatchJob.class)))
+                .thenReturn(job)
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(batchJobRepository.findById(job.getId())).thenReturn(Optional.of(BatchJob.builder()
+                .id(job.getId())
+                .status(BatchJob.Status.QUEUED)
+                .build()));
+        // The job is checkpointed under the SHA-256 of the uploaded content
+        String digest = CardUtils.toHex(MessageDigest.getInstance("SHA-256").digest("LOTE".getBytes()));
+        when(batchCardService.process(any(), any(), eq(digest))).thenReturn(BatchSummary.builder()
+                .totalLinesProcessed(12)
+                .successCount(9)
+                .failedCount(1)
+                .build());
+
+        MockMultipartFile file = new MockMultipartFile("file", "lote.txt", "text/plain", "LOTE".getBytes());
+        BatchJobResponse response = batchJobService.submit(file);
+
+        assertEquals(job.getId(), response.getJobId());
+        assertEquals(BatchJob.Status.QUEUED, response.getStatus());
+
+        ArgumentCaptor<BatchJob> saved = ArgumentCaptor.forClass(BatchJob.class);
+        verify(batchJobRepository, timeout(2000).times(3)).save(saved.capture());
+
+        assertEquals("node-1", saved.getAllValues().get(0).getInstanceId());
+        BatchJob finished = saved.getValue();
+        assertEquals(BatchJob.Status.COMPLETED, finished.getStatus());
+        assertEquals(12, finished.getLinesRead());
+        assertEquals(9, finished.getSuccessCount());
+        assertEquals(1, finished.getFailedCount());
+        assertNotNull(finished.getFinishedAt());
+    }
+
+    @Test
+    void submit_ShouldRunTaskAsJob_AndRecordItsFailure() {
+        UUID jobId = UUID.randomUUID();
+        when(batchJobRepository.save(any(BatchJob.class)))
+                .thenReturn(BatchJob.builder().id(jobId).status(BatchJob.Status.QUEUED).build())
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(batchJobRepository.findById(jobId)).thenReturn(Optional.of(BatchJob.builder()
+                .id(jobId)
+                .status(BatchJob.Status.QUEUED)
+                .build()));
+
+        batchJobService.submit("import.txt", progress -> {
+            progress.recordLinesRead(40);
+            progress.recordResults(30, 10, 0);
+            throw new IllegalStateException("Region failed");
+        });
+
+        ArgumentCaptor<BatchJob> saved = ArgumentCaptor.forClass(BatchJob.class);
+        verify(batchJobRepository, timeout(2000).times(3)).save(saved.capture());
+
+        assertEquals("import.txt", saved.getAllValues().get(0).getFileName());
+        BatchJob finished = saved.getValue();
+        assertEquals(BatchJob.Status.FAILED, finished.getStatus());
+        assertEquals(40, finished.getLinesRead());
+        assertEquals(30, finished.getSuccessCount());
+        assertEquals("Region failed", finished.getErrorMessage());
+    }
+
+    @Test
+    void submit_ShouldMarkJobFailed_WhenItCannotBeLoaded() {
+        UUID jobId = UUID.randomUUID();
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(BatchJob.builder()
+                .id(jobId)
+                .status(BatchJob.Status.QUEUED)
+                .build());
+        when(batchJobRepository.findById(jobId)).thenThrow(new IllegalStateException("Database unavailable"));
+
+        batchJobService.submit(new MockMultipartFile("file", "lote.txt", "text/plain", "LOTE".getBytes()));
+
+        verify(batchJobRepository, timeout(2000)).updateStatusIfIn(eq(jobId), any(), eq(BatchJob.Status.FAILED),
+                eq("Database unavailable"));
+        verify(batchCardService, never()).process(any(), any(), any());
+    }
+
+    @Test
+    void submit_ShouldPropagateError_WhenJobCannotBeSaved() {
+        when(batchJobRepository.save(any(BatchJob.class))).thenThrow(new IllegalStateException("Database unavailable"));
+
+        MockMultipartFile file = new MockMultipartFile("file", "lote.txt", "text/plain", "LOTE".getBytes());
+
+        assertThrows(IllegalStateException.class, () -> batchJobService.submit(file));
+        verify(batchJobRepository, never()).delete(any());
+    }
+
+    @Test
+    void failInterruptedJobs_ShouldOnlyFailThisInstancesJobs() {
+        batchJobService.failInterruptedJobs();
+
+        verify(batchJobRepository).updateStatusOfInstanceJobs(eq("node-1"), any(), eq(BatchJob.Status.FAILED),
+                any());
+    }
+
+    @Test
+    void getJob_ShouldReturnSummary_WhenJobIsCompleted() {
+        BatchJob job = BatchJob.builder()
+                .id(UUID.randomUUID())
+                .status(BatchJob.Status.COMPLETED)
+                .linesRead(2000)
+                .successCount(1990)
+                .failedCount(10)
+                .durationMs(500L)
+                .finishedAt(LocalDateTime.now())
+                .build();
+
+        when(batchJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        BatchJobResponse response = batchJobService.getJob(job.getId());
+
+        assertEquals(4000d, response.getLinesPerSecond());
+        assertNotNull(response.getSummary());
+        assertEquals(1990, response.getSummary().getSuccessCount());
+        assertNull(response.getErrorMessage());
+    }
+
+    @Test
+    void getJob_ShouldThrowException_WhenJobNotFound() {
+        UUID jobId = UUID.randomUUID();
+        when(batchJobRepository.findById(jobId)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> batchJobService.getJob(jobId));
+    }
+}
@@ -0,0 +1,103 @@
+package com.hyperativa.desafio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.hyperativa.desafio.repository.CardRepository;
+import com.hyperativa.desafio.util.CardUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class CardHashFilterTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardBackfillService cardBackfillService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardHashFilter cardHashFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cardHashFilter = new CardHashFilter(cardRepository, cardBackfillService, meterRegistry, true, false, 100_000, 0.01);
+    }
+
+    @Test
+    void mightContain_ShouldPassEverythingOn_UntilLoaded() {
+        assertTrue(cardHashFilter.mightContain(digest(1)));
+        assertEquals(0, meterRegistry.get("cards.bloom.ready").gauge().value());
+    }
+
+    @Test
+    void load_ShouldPageThroughTable_AndRuleOutUnknownCards() {
+        List<byte[]> firstPage = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            firstPage.add(digest(i));
+        }
+        when(cardRepository.findHashesAfter(any(), anyInt()))
+                .thenReturn(firstPage)
+                .thenReturn(List.of(digest(10_000)));
+
+        cardHashFilter.load();
+
+        assertTrue(cardHashFilter.mightContain(digest(0)));
+        assertTrue(cardHashFilter.mightContain(digest(10_000)));
+        assertEquals(1, meterRegistry.get("cards.bloom.ready").gauge().value());
+
+        int ruledOut = 0;
+        for (int i = 20_000; i < 21_000; i++) {
+            if (!cardHashFilter.mightContain(digest(i))) ruledOut++;
+        }
+        assertTrue(ruledOut > 950, "ruled out " + ruledOut);
+    }
+
+    @Test
+    void reload_ShouldForgetCardsNoLongerInTable() {
+        when(cardRepository.findHashesAfter(any(), anyInt()))
+                .thenReturn(List.of(digest(1)))
+                .thenReturn(List.of());
+        cardHashFilter.load();
+        assertTrue(cardHashFilter.mightContain(digest(1)));
+
+        cardHashFilter.reload();
+
+        assertFalse(cardHashFilter.mightContain(digest(1)));
+        assertEquals(1, meterRegistry.get("cards.bloom.ready").gauge().value());
+    }
+
+    @Test
+    void recordFalsePositives_ShouldFeedObservedRate() {
+        when(cardRepository.findHashesAfter(any(), anyInt())).thenReturn(List.of());
+        cardHashFilter.load();
+
+        for (int i = 0; i < 99; i++) {
+            assertFalse(cardHashFilter.mightContain(digest(i)));
+        }
+        cardHashFilter.add(digest(1_000));
+        assertTrue(cardHashFilter.mightContain(digest(1_000)));
+        cardHashFilter.recordFalsePositives(1);
+
+        assertEquals(0.01, meterRegistry.get("cards.bloom.false.positive.rate").gauge().value(), 1e-9);
+    }
+
+    private static byte[] digest(int seed) {
+        return CardUtils.generateHashBytes(Integer.toString(seed));
+    }
+}
@@ -0,0 +1,68 @@
+package com.hyperativa.desafio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CardLookupCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CardLookupCache.CachedCard card =
+            new CardLookupCache.CachedCard(UUID.randomUUID(), new byte[32], LocalDateTime.now());
+    private final AtomicInteger queries = new AtomicInteger();
+    private final Supplier<Optional<CardLookupCache.CachedCard>> loader = () -> {
+        queries.incrementAndGet();
+        return Optional.of(card);
+    };
+
+    @Test
+    void getByNumberHash_ShouldServeBothKeys_AfterOneLoad() {
+        CardLookupCache cache = new CardLookupCache(meterRegistry, true, 100, Duration.ofMinutes(1));
+
+        assertSame(card, cache.getByNumberHash(card.numberHash(), loader).orElseThrow());
+        assertSame(card, cache.getByNumberHash(card.numberHash(), loader).orElseThrow());
+        assertSame(card, cache.getById(card.id(), loader).orElseThrow());
+
+        assertEquals(1, queries.get());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "cards.by-number").tag("result", "hit")
+                .functionCounter().count() + meterRegistry.get("cache.gets").tag("cache", "cards.by-id")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getByNumberHash_ShouldNotCacheMissingCards() {
+        CardLookupCache cache = new CardLookupCache(meterRegistry, true, 100, Duration.ofMinutes(1));
+        Supplier<Optional<CardLookupCache.CachedCard>> missing = () -> {
+            queries.incrementAndGet();
+            return Optional.empty();
+        };
+
+        cache.getByNumberHash(card.numberHash(), missing);
+        cache.getByNumberHash(card.numberHash(), missing);
+
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void getByNumberHash_ShouldCallLoaderEveryTime_WhenDisabled() {
+        CardLookupCache cache = new CardLookupCache(meterRegistry, false, 100, Duration.ofMinutes(1));
+
+        cache.put(card.id(), card.numberHash(), card.createdAt());
+        cache.getByNumberHash(card.numberHash(), loader);
+        cache.getById(card.id(), loader);
+
+        assertEquals(2, queries.get());
+        assertNull(meterRegistry.find("cache.gets").meter());
+    }
+}
@@ -1,29 +1,53 @@
 package com.hyperativa.desafio.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.hyperativa.desafio.domain.Card;
+import com.hyperativa.desafio.dto.BulkCardResult;
+import com.hyperativa.desafio.dto.BulkLookupResult;
 import com.hyperativa.desafio.dto.CardRequest;
 import com.hyperativa.desafio.dto.CardResponse;
 import com.hyperativa.desafio.exception.DuplicateCardException;
+import com.hyperativa.desafio.repository.CardBulkWriter;
 import com.hyperativa.desafio.repository.CardRepository;
+import com.hyperativa.desafio.util.CardUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class CardServiceTest {
@@ -34,9 +58,36 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private CardBulkWriter cardBulkWriter;
+
     @Mock
     private EncryptionService encryptionService;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CardHashFilter cardHashFilter;
+
+    @Mock
+    private CardBackfillService cardBackfillService;
+
+    @Spy
+    private CardMetrics metrics = new CardMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private CardLookupCache cardLookupCache =
+            new CardLookupCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+
+    @Captor
+    private ArgumentCaptor<List<Card>> insertedCards;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cardHashFilter.mightContain(any())).thenReturn(true);
+    }
+
     private static final String VALID_CARD_NUMBER = "1234567812345670"; // Luhn Valid
     private static final String INVALID_CARD_NUMBER = "1234567812345671"; // Luhn Invalid
 
@@ -45,13 +96,13 @@ class CardServiceTest {
         CardRequest request = new CardRequest();
         request.setCardNumber(VALID_CARD_NUMBER);
 
-        when(cardRepository.existsByNumberHash(anyString())).thenReturn(false);
-        when(encryptionService.encrypt(VALID_CARD_NUMBER)).thenReturn("encrypted-value");
+        when(cardRepository.existsByNumberHash(any(byte[].class))).thenReturn(false);
+        when(encryptionService.encryptToBytes(VALID_CARD_NUMBER)).thenReturn(new byte[44]);
 
         Card savedCard = Card.builder()
                 .id(UUID.randomUUID())
-                .encryptedNumber("encrypted-value")
-                .numberHash("hash-value")
+                .encryptedNumber(new byte[44])
+                .numberHash(new byte[32])
                 .createdAt(LocalDateTime.now())
                 .build();
 
@@ -82,7 +133,7 @@ class CardServiceTest {
         CardRequest request = new CardRequest();
         request.setCardNumber(VALID_CARD_NUMBER);
 
-        when(cardRepository.existsByNumberHash(anyString())).thenReturn(true);
+        when(cardRepository.existsByNumberHash(any(byte[].class))).thenReturn(true);
 
         assertThrows(DuplicateCardException.class, () -> {
             cardService.create(request);
@@ -98,7 +149,7 @@ class CardServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(cardRepository.findByNumberHash(anyString())).thenReturn(Optional.of(card));
+        when(cardRepository.findByNumberHash(any(byte[].class))).thenReturn(Optional.of(card));
 
         CardResponse response = cardService.findByCardNumber(VALID_CARD_NUMBER);
 
@@ -108,10 +159,279 @@ class CardServiceTest {
 
     @Test
     void findByCardNumber_ShouldThrowException_WhenCardNotFound() {
-        when(cardRepository.findByNumberHash(anyString())).thenReturn(Optional.empty());
+        when(cardRepository.findByNumberHash(any(byte[].class))).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () -> {
             cardService.findByCardNumber(VALID_CARD_NUMBER);
         });
     }
+
+    @Test
+    void findByCardNumber_ShouldQueryDatabaseOnce_ForRepeatedSearches() {
+        Card card = Card.builder()
+                .id(UUID.randomUUID())
+                .numberHash(CardUtils.generateHashBytes(VALID_CARD_NUMBER))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(cardRepository.findByNumberHash(any(byte[].class))).thenReturn(Optional.of(card));
+
+        cardService.findByCardNumber(VALID_CARD_NUMBER);
+        CardResponse response = cardService.findByCardNumber(VALID_CARD_NUMBER);
+        CardResponse byId = cardService.getCard(card.getId());
+
+        assertEquals(card.getId(), response.getId());
+        assertEquals(card.getCreatedAt(), byId.getCreatedAt());
+        verify(cardRepository, times(1)).findByNumberHash(any());
+        verify(cardRepository, never()).findById(any());
+    }
+
+    @Test
+    void findByCardNumber_ShouldUseHexHash_WhileBinaryHashIsBackfilled() {
+        Card card = Card.builder()
+                .id(UUID.randomUUID())
+                .legacyNumberHash(CardUtils.generateHash(VALID_CARD_NUMBER))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(cardBackfillService.isHashBackfillPending()).thenReturn(true);
+        when(cardRepository.findByLegacyNumberHash(any(byte[].class))).thenReturn(Optional.of(card));
+
+        CardResponse response = cardService.findByCardNumber(VALID_CARD_NUMBER);
+
+        assertEquals(card.getId(), response.getId());
+        assertArrayEquals(CardUtils.generateHashBytes(VALID_CARD_NUMBER), card.getNumberHash());
+        verify(cardRepository, never()).findByNumberHash(any());
+    }
+
+    @Test
+    void getCard_ShouldNotCacheMissingCards() {
+        UUID id = UUID.randomUUID();
+        when(cardRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> cardService.getCard(id));
+        assertThrows(IllegalArgumentException.class, () -> cardService.getCard(id));
+
+        verify(cardRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void findByCardNumber_ShouldSkipDatabase_WhenFilterRulesCardOut() {
+        when(cardHashFilter.isSearchEnabled()).thenReturn(true);
+        when(cardHashFilter.mightContain(any())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> cardService.findByCardNumber(VALID_CARD_NUMBER));
+
+        verify(cardRepository, never()).findByNumberHash(any());
+    }
+
+    @Test
+    void findByCardNumber_ShouldQueryDatabase_WhenFilterIsNotUsedForSearches() {
+        // Another instance may have registered the card without this filter seeing it
+        when(cardRepository.findByNumberHash(any())).thenReturn(Optional.of(Card.builder()
+                .id(UUID.randomUUID())
+                .createdAt(LocalDateTime.now())
+                .build()));
+
+        cardService.findByCardNumber(VALID_CARD_NUMBER);
+
+        verify(cardHashFilter, never()).mightContain(any());
+        verify(cardHashFilter, never()).recordFalsePositives(anyInt());
+    }
+
+    @Test
+    void create_ShouldSkipExistenceCheck_WhenFilterRulesCardOut() {
+        CardRequest request = new CardRequest();
+        request.setCardNumber(VALID_CARD_NUMBER);
+
+        when(cardHashFilter.mightContain(any())).thenReturn(false);
+        when(encryptionService.encryptToBytes(VALID_CARD_NUMBER)).thenReturn(new byte[44]);
+        when(cardRepository.save(any(Card.class))).thenAnswer(inv -> Card.builder()
+                .id(UUID.randomUUID())
+                .numberHash(inv.<Card>getArgument(0).getNumberHash())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        cardService.create(request);
+
+        verify(cardRepository, never()).existsByNumberHash(any());
+        verify(cardHashFilter).add(CardUtils.generateHashBytes(VALID_CARD_NUMBER));
+    }
+
+    @Test
+    void create_ShouldThrowDuplicate_WhenUniqueConstraintRejectsInsert() {
+        CardRequest request = new CardRequest();
+        request.setCardNumber(VALID_CARD_NUMBER);
+
+        when(cardHashFilter.mightContain(any())).thenReturn(false);
+        when(encryptionService.encryptToBytes(VALID_CARD_NUMBER)).thenReturn(new byte[44]);
+        when(cardRepository.save(any(Card.class))).thenThrow(new DataIntegrityViolationException("uk_number_hash"));
+
+        assertThrows(DuplicateCardException.class, () -> cardService.create(request));
+
+        verify(cardHashFilter, never()).add(any());
+    }
+
+    @Test
+    void createAll_ShouldReturnOneResultPerCard_InRequestOrder() {
+        // 130 cards, so validation and encryption run in several parallel slices
+        List<CardRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            requests.add(new CardRequest(BatchCardServiceTest.luhnCard(i)));
+        }
+        requests.set(3, new CardRequest(INVALID_CARD_NUMBER));
+        requests.set(70, new CardRequest("1234abcd"));
+        requests.set(100, new CardRequest(BatchCardServiceTest.luhnCard(5)));
+        requests.set(120, null);
+
+        stubBulkInsert();
+        when(cardRepository.findExistingHashes(anyList()))
+                .thenReturn(List.of(CardUtils.generateHashBytes(BatchCardServiceTest.luhnCard(10))));
+
+        List<BulkCardResult> results = cardService.createAll(requests);
+
+        assertEquals(130, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BulkCardResult result = results.get(i);
+            assertEquals(i, result.getIndex());
+            BulkCardResult.Status expected = switch (i) {
+                case 3, 70, 120 -> BulkCardResult.Status.INVALID;
+                case 10, 100 -> BulkCardResult.Status.DUPLICATE;
+                default -> BulkCardResult.Status.CREATED;
+            };
+            assertEquals(expected, result.getStatus(), "card " + i);
+            assertEquals(expected == BulkCardResult.Status.CREATED, result.getId() != null);
+        }
+        assertEquals("Card repeated in request", results.get(100).getError());
+        assertEquals("Card already registered", results.get(10).getError());
+
+        verify(cardBulkWriter).insertAll(insertedCards.capture());
+        assertEquals(125, insertedCards.getValue().size());
+        verify(cardRepository).findExistingHashes(anyList());
+    }
+
+    @Test
+    void createAll_ShouldFallBackToOneInsertPerCard_WhenBulkInsertFails() {
+        List<CardRequest> requests = List.of(
+                new CardRequest(BatchCardServiceTest.luhnCard(1)),
+                new CardRequest(BatchCardServiceTest.luhnCard(2)));
+
+        stubBulkInsert();
+        when(cardBulkWriter.insertAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        List<BulkCardResult> results = cardService.createAll(requests);
+
+        assertEquals(BulkCardResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BulkCardResult.Status.DUPLICATE, results.get(1).getStatus());
+        verify(cardBulkWriter, times(3)).insertAll(anyList());
+    }
+
+    @Test
+    void createAll_ShouldThrowException_WhenRequestExceedsLimit() {
+        ReflectionTestUtils.setField(cardService, "maxBulkSize", 2);
+        List<CardRequest> requests = List.of(new CardRequest(VALID_CARD_NUMBER),
+                new CardRequest(VALID_CARD_NUMBER), new CardRequest(VALID_CARD_NUMBER));
+
+        assertThrows(IllegalArgumentException.class, () -> cardService.createAll(requests));
+        verify(cardBulkWriter, never()).insertAll(anyList());
+    }
+
+    @Test
+    void findAllByCardNumber_ShouldResolveChunksWithOneQueryEach_InRequestOrder() {
+        // 600 numbers: two IN (...) queries. Even positions are registered, 7 and 507 are malformed
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            numbers.add(BatchCardServiceTest.luhnCard(i));
+        }
+        numbers.set(7, "12ab");
+        numbers.set(507, null);
+
+        when(cardRepository.findByNumberHashIn(anyList())).thenAnswer(invocation -> {
+            Collection<byte[]> hashes = invocation.getArgument(0);
+            List<CardRepository.CardRef> found = new ArrayList<>();
+            for (int i = 0; i < numbers.size(); i += 2) {
+                byte[] hash = CardUtils.generateHashBytes(numbers.get(i));
+                if (hashes.stream().anyMatch(h -> Arrays.equals(h, hash))) found.add(cardRef(hash));
+            }
+            return found;
+        });
+
+        List<BulkLookupResult> results = cardService.findAllByCardNumber(numbers).flatMap(List::stream).toList();
+
+        assertEquals(600, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(i % 2 == 0, results.get(i).isFound(), "number " + i);
+            assertEquals(i % 2 == 0, results.get(i).getId() != null);
+        }
+        verify(cardRepository, times(2)).findByNumberHashIn(anyList());
+    }
+
+    @Test
+    void findAllByCardNumber_ShouldCountRepeatedNumbersOnce_AsFalsePositives() {
+        when(cardHashFilter.isSearchEnabled()).thenReturn(true);
+        when(cardRepository.findByNumberHashIn(anyList())).thenReturn(List.of());
+
+        List<String> numbers = List.of(VALID_CARD_NUMBER, VALID_CARD_NUMBER, VALID_CARD_NUMBER);
+        List<BulkLookupResult> results = cardService.findAllByCardNumber(numbers).flatMap(List::stream).toList();
+
+        assertEquals(3, results.size());
+        verify(cardRepository).findByNumberHashIn(argThat(hashes -> hashes.size() == 1));
+        verify(cardHashFilter).recordFalsePositives(1);
+    }
+
+    @Test
+    void getCards_ShouldReportMissingIds_AsNotFound() {
+        CardRepository.CardRef card = cardRef(new byte[32]);
+        List<UUID> ids = Arrays.asList(UUID.randomUUID(), card.getId(), null);
+
+        when(cardRepository.findByIdIn(anyList())).thenReturn(List.of(card));
+
+        List<BulkLookupResult> results = cardService.getCards(ids).flatMap(List::stream).toList();
+
+        assertEquals(List.of(false, true, false), results.stream().map(BulkLookupResult::isFound).toList());
+        assertEquals(card.getId(), results.get(1).getId());
+        assertEquals(card.getCreatedAt(), results.get(1).getCreatedAt());
+    }
+
+    @Test
+    void findAllByCardNumber_ShouldThrowException_WhenRequestExceedsLimit() {
+        ReflectionTestUtils.setField(cardService, "maxLookupSize", 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cardService.findAllByCardNumber(List.of(VALID_CARD_NUMBER, VALID_CARD_NUMBER)));
+        verify(cardRepository, never()).findByNumberHashIn(anyList());
+    }
+
+    private static CardRepository.CardRef cardRef(byte[] numberHash) {
+        UUID id = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.now();
+        return new CardRepository.CardRef() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public byte[] getNumberHash() {
+                return numberHash;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+
+    private void stubBulkInsert() {
+        when(cardBulkWriter.newId()).thenAnswer(invocation -> UUID.randomUUID());
+        when(encryptionService.encryptAll(anyList())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(number -> new byte[44]).toList());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
 }
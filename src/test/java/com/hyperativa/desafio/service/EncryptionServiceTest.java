@@ -5,19 +5,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 class EncryptionServiceTest {
 
+    private static final CardMetrics METRICS = new CardMetrics(new SimpleMeterRegistry());
+
     private EncryptionService encryptionService;
     private final String TEST_SECRET = "5vMCw0th3/8uX1+Qj5/Zk9l8vMCw0th3/8uX1+Qj5/Y="; // 32 bytes (Base64)
 
     @BeforeEach
     void setUp() {
-        encryptionService = new EncryptionService(TEST_SECRET);
+        encryptionService = new EncryptionService(TEST_SECRET, METRICS);
     }
 
     @Test
@@ -48,7 +54,8 @@ class EncryptionServiceTest {
         String originalText = "CriticalData";
         String encrypted = encryptionService.encrypt(originalText);
 
-        EncryptionService wrongKeyService = new EncryptionService("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=");
+        EncryptionService wrongKeyService =
+                new EncryptionService("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=", METRICS);
 
         assertThrows(SecurityException.class, () -> wrongKeyService.decrypt(encrypted));
     }
@@ -66,4 +73,28 @@ class EncryptionServiceTest {
 
         assertThrows(SecurityException.class, () -> encryptionService.decrypt(tampered));
     }
+
+    @Test
+    void encryptAll_ShouldEncryptEachItemInOrder_WithDistinctIVs() {
+        List<String> originals = List.of("4111111111111111", "5555555555554444", "4111111111111111");
+
+        List<byte[]> encrypted = encryptionService.encryptAll(originals);
+
+        assertEquals(originals.size(), encrypted.size());
+        assertFalse(Arrays.equals(encrypted.get(0), encrypted.get(2)));
+        for (int i = 0; i < originals.size(); i++) {
+            assertEquals(originals.get(i), encryptionService.decrypt(encrypted.get(i)));
+        }
+    }
+
+    @Test
+    void encryptToBytes_ShouldMatchBase64Format_AndStayCompact() {
+        String originalText = "4111111111111111";
+
+        byte[] binary = encryptionService.encryptToBytes(originalText);
+
+        assertEquals(12 + originalText.length() + 16, binary.length);
+        assertEquals(originalText, encryptionService.decrypt(binary));
+        assertEquals(originalText, encryptionService.decrypt(Base64.getEncoder().encodeToString(binary)));
+    }
 }
@@ -0,0 +1,191 @@
+package com.hyperativa.desafio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.hyperativa.desafio.dto.BatchSummary;
+import com.hyperativa.desafio.repository.BatchCheckpointRepository;
+import com.hyperativa.desafio.repository.CardBulkWriter;
+import com.hyperativa.desafio.repository.CardRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class FileImportServiceTest {
+
+    @TempDir
+    Path importDirectory;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardBulkWriter cardBulkWriter;
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CardHashFilter cardHashFilter;
+
+    @Mock
+    private CardBackfillService cardBackfillService;
+
+    @Mock
+    private BatchJobService batchJobService;
+
+    private BatchCardService batchCardService;
+    private FileImportService fileImportService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cardHashFilter.mightContain(any())).thenReturn(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        batchCardService = new BatchCardService(cardRepository, cardBulkWriter, encryptionService,
+                transactionTemplate, checkpointRepository, cardHashFilter, cardBackfillService,
+                new CardMetrics(meterRegistry),
+                new AdaptiveChunkSizer(meterRegistry, false, 500, 50, 5000, Duration.ofMillis(250)), entityManager);
+        fileImportService = new FileImportService(batchCardService, batchJobService);
+        ReflectionTestUtils.setField(fileImportService, "importDirectory", importDirectory.toString());
+        ReflectionTestUtils.setField(fileImportService, "workers", 3);
+        ReflectionTestUtils.setField(fileImportService, "regionSize", DataSize.ofBytes(1000));
+    }
+
+    @Test
+    void importFile_ShouldReportSameCountsAsUpload_AcrossManyRegions() throws IOException {
+        StringBuilder fileContent = new StringBuilder("DESAFIO-HYPERATIVA           20180524LOTE0001000900\n");
+        for (int i = 0; i < 900; i++) {
+            // Every 10th line repeats a card from much earlier in the file, every 7th breaks the Luhn check
+            String card = BatchCardServiceTest.luhnCard(i % 10 == 9 ? i / 2 : i);
+            if (i % 7 == 6) card = card.substring(0, 15) + ((card.charAt(15) - '0' + 1) % 10);
+            fileContent.append("C").append(String.format("%-6d", i)).append(card).append("\n");
+        }
+        fileContent.append("LOTE0001000900");
+        Files.writeString(importDirectory.resolve("lote.txt"), fileContent);
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(invocation ->
+                ((List<?>) invocation.getArgument(0)).stream().map(number -> new byte[44]).toList());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        BatchProgress progress = new BatchProgress();
+        BatchSummary imported = fileImportService.importFile(importDirectory.resolve("lote.txt"), progress);
+        BatchSummary uploaded = batchCardService.processStream(
+                Files.newInputStream(importDirectory.resolve("lote.txt")));
+
+        assertEquals(902, imported.getTotalLinesProcessed());
+        assertEquals(uploaded.getSuccessCount(), imported.getSuccessCount());
+        assertEquals(uploaded.getFailedCount(), imported.getFailedCount());
+        assertEquals(uploaded.getDuplicateCount(), imported.getDuplicateCount());
+
+        // The job's counters are the sums over all regions
+        assertEquals(902, progress.getLinesRead());
+        assertEquals(imported.getSuccessCount(), progress.getSuccessCount());
+        assertEquals(imported.getDuplicateCount(), progress.getDuplicateCount());
+    }
+
+    @Test
+    void importFile_ShouldOnlySkipByteOrderMarkAtStartOfFile() throws IOException {
+        // Region size 1000 and lines of ~30 bytes: the second region starts with the same BOM bytes
+        String bom = "\uFEFF";
+        String line = "C1     " + BatchCardServiceTest.luhnCard(1) + "\n";
+        String file = bom + line + line.repeat(999 / line.length()) + bom + "C2     " + BatchCardServiceTest.luhnCard(2);
+        Files.writeString(importDirectory.resolve("bom.txt"), file);
+
+        when(encryptionService.encryptAll(anyList())).thenAnswer(invocation ->
+                ((List<?>) invocation.getArgument(0)).stream().map(number -> new byte[44]).toList());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        BatchSummary imported = fileImportService.importFile(importDirectory.resolve("bom.txt"), new BatchProgress());
+
+        // Only the first card is saved: the last line does not start with 'C'
+        assertEquals(1, imported.getSuccessCount());
+    }
+
+    @Test
+    void split_ShouldTreatCarriageReturnsAsLineBreaks() throws IOException {
+        Path file = importDirectory.resolve("cr.txt");
+        Files.writeString(file, "a".repeat(30) + "\r" + "b".repeat(30) + "\r\n" + "c".repeat(5),
+                StandardCharsets.US_ASCII);
+        ReflectionTestUtils.setField(fileImportService, "regionSize", DataSize.ofBytes(10));
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            List<FileImportService.Region> regions = fileImportService.split(channel);
+
+            assertEquals(3, regions.size());
+            assertEquals(31, regions.get(1).offset());
+            assertEquals(63, regions.get(2).offset());
+        }
+    }
+
+    @Test
+    void split_ShouldCutRegionsRightAfterLineBreaks() throws IOException {
+        Path file = importDirectory.resolve("lines.txt");
+        Files.writeString(file, "a".repeat(30) + "\n" + "b".repeat(30) + "\n" + "c".repeat(5),
+                StandardCharsets.US_ASCII);
+        ReflectionTestUtils.setField(fileImportService, "regionSize", DataSize.ofBytes(10));
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            List<FileImportService.Region> regions = fileImportService.split(channel);
+
+            assertEquals(3, regions.size());
+            assertEquals(31, regions.get(1).offset());
+            assertEquals(62, regions.get(2).offset());
+            assertEquals(5, regions.get(2).length());
+        }
+    }
+
+    @Test
+    void importFile_ShouldRejectPathsOutsideImportDirectory() throws IOException {
+        Path outside = Files.createTempFile("outside-", ".txt");
+        try {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> fileImportService.submitImport("../" + outside.getFileName()));
+            assertTrue(error.getMessage().contains("not found"));
+            assertThrows(IllegalArgumentException.class, () -> fileImportService.submitImport(outside.toString()));
+            verifyNoInteractions(batchJobService);
+        } finally {
+            Files.deleteIfExists(outside);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hyperativa.desafio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.hyperativa.desafio.domain.User;
+import com.hyperativa.desafio.exception.LoginThrottledException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class LoginServiceTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginService loginService;
+
+    @AfterEach
+    void tearDown() {
+        if (loginService != null) loginService.shutdown();
+    }
+
+    @Test
+    void authenticate_ShouldCompleteWithUser_WhenCredentialsAreValid() throws Exception {
+        loginService = new LoginService(authenticationManager, meterRegistry, 1, 1);
+        User user = User.builder().username("admin").password("hash").role("ADMIN").build();
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        Optional<UserDetails> result = loginService.authenticate("admin", "secret").get(5, TimeUnit.SECONDS);
+
+        assertEquals(Optional.of(user), result);
+    }
+
+    @Test
+    void authenticate_ShouldCompleteEmpty_WhenCredentialsAreWrong() throws Exception {
+        loginService = new LoginService(authenticationManager, meterRegistry, 1, 1);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertTrue(loginService.authenticate("admin", "wrong").get(5, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    void authenticate_ShouldRejectRightAway_WhenQueueIsFull() throws Exception {
+        loginService = new LoginService(authenticationManager, meterRegistry, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(authenticationManager.authenticate(any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new BadCredentialsException("Bad credentials");
+        });
+
+        CompletableFuture<Optional<UserDetails>> running = loginService.authenticate("a", "p");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<UserDetails>> queued = loginService.authenticate("b", "p");
+
+        assertEquals(1, meterRegistry.get("auth.login.queue.size").gauge().value());
+        assertThrows(LoginThrottledException.class, () -> loginService.authenticate("c", "p"));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS).isEmpty());
+        assertTrue(queued.get(5, TimeUnit.SECONDS).isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package com.hyperativa.desafio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.hyperativa.desafio.domain.RefreshToken;
+import com.hyperativa.desafio.domain.User;
+import com.hyperativa.desafio.repository.RefreshTokenRepository;
+import com.hyperativa.desafio.security.JwtService;
+import com.hyperativa.desafio.security.VerifiedToken;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, jwtService, 60_000);
+    }
+
+    @Test
+    void issue_ShouldSignTheStoredTokenId() {
+        User user = User.builder().username("admin").password("hash").role("ADMIN").build();
+        UUID id = UUID.randomUUID();
+        RefreshToken stored = RefreshToken.builder().id(id).username("admin").build();
+        when(refreshTokenRepository.save(any())).thenReturn(stored);
+        when(jwtService.generateRefreshToken(user, id)).thenReturn("refresh-token");
+
+        assertEquals("refresh-token", refreshTokenService.issue(user));
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("admin", saved.getValue().getUsername());
+        verify(refreshTokenRepository).deleteExpiredBefore(any());
+    }
+
+    @Test
+    void consume_ShouldReturnUser_WhenTokenIsLive() {
+        UUID id = UUID.randomUUID();
+        when(refreshTokenRepository.deleteActive(eq(id), any())).thenReturn(1);
+
+        assertEquals(Optional.of("admin"), refreshTokenService.consume(refreshToken(id)));
+        verify(refreshTokenRepository, never()).deleteByUsername(any());
+    }
+
+    @Test
+    void consume_ShouldRevokeAllUserTokens_WhenTokenIsReused() {
+        UUID id = UUID.randomUUID();
+        when(refreshTokenRepository.deleteActive(eq(id), any())).thenReturn(0);
+
+        assertTrue(refreshTokenService.consume(refreshToken(id)).isEmpty());
+        verify(refreshTokenRepository).deleteByUsername("admin");
+    }
+
+    @Test
+    void consume_ShouldRejectTokensWithoutId() {
+        VerifiedToken legacy = new VerifiedToken("admin", null, Instant.now().plusSeconds(60), true, null);
+
+        assertTrue(refreshTokenService.consume(legacy).isEmpty());
+        verify(refreshTokenRepository, never()).deleteActive(any(), any());
+    }
+
+    @Test
+    void revoke_ShouldDeleteTheToken() {
+        UUID id = UUID.randomUUID();
+
+        refreshTokenService.revoke(refreshToken(id));
+
+        verify(refreshTokenRepository).deleteById(id);
+    }
+
+    private static VerifiedToken refreshToken(UUID id) {
+        return new VerifiedToken("admin", null, Instant.now().plusSeconds(60), true, id.toString());
+    }
+}
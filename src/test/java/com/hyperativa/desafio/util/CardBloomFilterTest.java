@@ -0,0 +1,48 @@
+package com.hyperativa.desafio.util;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CardBloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissAnAddedHash() {
+        CardBloomFilter filter = CardBloomFilter.create(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(digest(i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(digest(i)), "added hash " + i);
+        }
+    }
+
+    @Test
+    void mightContain_ShouldStayNearConfiguredRate_ForAbsentHashes() {
+        CardBloomFilter filter = CardBloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(digest(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 60_000; i++) {
+            if (filter.mightContain(digest(i))) falsePositives++;
+        }
+
+        double rate = falsePositives / 50_000.0;
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    void create_ShouldRejectInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> CardBloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> CardBloomFilter.create(1000, 1.0));
+    }
+
+    private static byte[] digest(int seed) {
+        return CardUtils.generateHashBytes(Integer.toString(seed));
+    }
+}
@@ -0,0 +1,50 @@
+package com.hyperativa.desafio.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CardHashSetTest {
+
+    @Test
+    void add_ShouldRejectDuplicates_AcrossResizes() {
+        CardHashSet set = new CardHashSet(16);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(set.add(digest(i)), "first insert of " + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(set.add(digest(i)), "second insert of " + i);
+        }
+
+        assertEquals(10_000, set.size());
+        assertFalse(set.contains(digest(10_000)));
+    }
+
+    @Test
+    void add_ShouldKeepDigestsApart_WhenOnlyFingerprintsCollide() {
+        CardHashSet set = new CardHashSet();
+        byte[] first = new byte[CardHashSet.DIGEST_LENGTH];
+        byte[] second = new byte[CardHashSet.DIGEST_LENGTH];
+        second[CardHashSet.DIGEST_LENGTH - 1] = 1; // Same 8-byte prefix, different tail
+
+        assertTrue(set.add(first));
+        assertTrue(set.add(second));
+        assertFalse(set.add(second.clone()));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void add_ShouldRejectDigestsOfWrongLength() {
+        CardHashSet set = new CardHashSet();
+
+        assertThrows(IllegalArgumentException.class, () -> set.add(new byte[16]));
+    }
+
+    private static byte[] digest(int seed) {
+        return CardUtils.generateHashBytes(Integer.toString(seed));
+    }
+}
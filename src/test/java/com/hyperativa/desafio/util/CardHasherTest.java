@@ -0,0 +1,44 @@
+package com.hyperativa.desafio.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+
+class CardHasherTest {
+
+    @Test
+    void sha256_ShouldMatchMessageDigest_ForEveryInputForm() throws Exception {
+        String cardNumber = "4485680029594269";
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(cardNumber.getBytes(StandardCharsets.UTF_8));
+
+        assertArrayEquals(expected, CardHasher.sha256(cardNumber));
+        assertArrayEquals(expected, CardHasher.sha256(new StringBuilder(cardNumber)));
+
+        byte[] line = ("C2     " + cardNumber + "   ").getBytes(StandardCharsets.US_ASCII);
+        assertArrayEquals(expected, CardHasher.sha256(line, 7, cardNumber.length()));
+    }
+
+    @Test
+    void sha256_ShouldFallBackToUtf8_ForNonAsciiAndLongInput() throws Exception {
+        String nonAscii = "4485 6800 2959 4269 ção";
+        String longInput = "4".repeat(200);
+        MessageDigest reference = MessageDigest.getInstance("SHA-256");
+
+        assertArrayEquals(reference.digest(nonAscii.getBytes(StandardCharsets.UTF_8)), CardHasher.sha256(nonAscii));
+        assertArrayEquals(reference.digest(longInput.getBytes(StandardCharsets.UTF_8)), CardHasher.sha256(longInput));
+    }
+
+    @Test
+    void toHex_ShouldProduceLowercaseHex() {
+        byte[] bytes = {0x00, 0x0f, (byte) 0xa0, (byte) 0xff, 0x7e};
+
+        assertEquals(HexFormat.of().formatHex(bytes), CardHasher.toHex(bytes));
+        assertEquals(CardHasher.toHex(CardHasher.sha256("1234567812345670")),
+                CardUtils.generateHash("1234567812345670"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.hyperativa.desafio.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.hyperativa.desafio.exception.UploadTooLargeException;
+
+class LimitedInputStreamTest {
+
+    @Test
+    void read_ShouldPassThrough_UpToTheLimit() throws Exception {
+        byte[] body = "C      4111111111111111\n".getBytes();
+        InputStream input = new LimitedInputStream(new ByteArrayInputStream(body), body.length);
+
+        assertArrayEquals(body, input.readAllBytes());
+        assertEquals(-1, input.read());
+    }
+
+    @Test
+    void read_ShouldFail_OnceTheLimitIsExceeded() throws Exception {
+        InputStream input = new LimitedInputStream(new ByteArrayInputStream(new byte[100]), 10);
+
+        assertEquals(0, input.read());
+        assertThrows(UploadTooLargeException.class, () -> input.read(new byte[50]));
+    }
+}
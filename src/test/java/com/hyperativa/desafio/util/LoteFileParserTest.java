@@ -0,0 +1,125 @@
+package com.hyperativa.desafio.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.hyperativa.desafio.util.LoteFileParser.RecordType;
+
+class LoteFileParserTest {
+
+    @Test
+    void next_ShouldReadHeaderCardsAndTrailer() throws IOException {
+        String file = """
+                DESAFIO-HYPERATIVA           20180524LOTE0001000002
+                C2     4485680029594269                          \r
+                C5     4456897999999999124
+
+                LOTE0001000002""";
+
+        try (LoteFileParser parser = new LoteFileParser(trickle(file))) {
+            assertEquals(RecordType.HEADER, parser.next());
+            assertEquals(new LoteFileParser.Header("DESAFIO-HYPERATIVA", "20180524", "LOTE0001", 2), parser.header());
+
+            assertEquals(RecordType.CARD, parser.next());
+            assertEquals("4485680029594269", card(parser));
+
+            assertEquals(RecordType.CARD, parser.next());
+            assertEquals("4456897999999999124", card(parser));
+            assertEquals(3, parser.lineNumber());
+
+            assertEquals(RecordType.BLANK, parser.next());
+            assertEquals(RecordType.TRAILER, parser.next());
+            assertEquals(new LoteFileParser.Trailer("LOTE0001", 2), parser.trailer());
+
+            assertNull(parser.next());
+            assertEquals(5, parser.lineNumber());
+            assertEquals(2, parser.cardRecords());
+        }
+    }
+
+    @Test
+    void next_ShouldReportMissingCardFields() throws IOException {
+        String file = "C1          \nC2" + " ".repeat(30) + "001\n  C3     4485680029594269\nX\n";
+
+        try (LoteFileParser parser = new LoteFileParser(trickle(file))) {
+            // Trailing blanks do not count, so the line ends before column 7
+            assertEquals(RecordType.CARD, parser.next());
+            assertEquals(-1, parser.cardLength());
+
+            assertEquals(RecordType.CARD, parser.next());
+            assertEquals(0, parser.cardLength());
+
+            // Columns count from the first non-blank byte, like trim() + substring(7, 26)
+            assertEquals(RecordType.CARD, parser.next());
+            assertEquals("4485680029594269", card(parser));
+
+            assertEquals(RecordType.UNKNOWN, parser.next());
+            assertNull(parser.next());
+        }
+    }
+
+    @Test
+    void next_ShouldTolerateShortHeaderAndTrailer() throws IOException {
+        try (LoteFileParser parser = new LoteFileParser(trickle("﻿DESAFIO-HYPERATIVA\nLOTE\n"))) {
+            assertEquals(RecordType.HEADER, parser.next());
+            assertEquals(new LoteFileParser.Header("DESAFIO-HYPERATIVA", null, null, -1), parser.header());
+
+            assertEquals(RecordType.TRAILER, parser.next());
+            assertEquals(-1, parser.trailer().recordCount());
+        }
+    }
+
+    @Test
+    void next_ShouldEndLinesAtLoneCarriageReturn_AndCountCrLfOnce() throws IOException {
+        // trickle's 6th read ends between the \r and the \n
+        String file = "C1  \rC2      4485680029594269\r\n\rLOTE\r";
+
+        for (LoteFileParser parser : List.of(new LoteFileParser(trickle(file)),
+                new LoteFileParser(ByteBuffer.wrap(file.getBytes(StandardCharsets.US_ASCII)), true))) {
+            assertEquals(RecordType.CARD, parser.next());
+            assertEquals(RecordType.CARD, parser.next());
+            assertEquals("4485680029594269", card(parser));
+            assertEquals(RecordType.BLANK, parser.next());
+            assertEquals(RecordType.TRAILER, parser.next());
+            assertNull(parser.next());
+            assertEquals(4, parser.lineNumber());
+        }
+    }
+
+    @Test
+    void isLuhnValid_ShouldMatchStringVersion_AndRejectNonDigits() {
+        byte[] line = "C2     4485680029594269 4485680029594268 4485-80029594269".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(CardUtils.isLuhnValid(line, 7, 16));
+        assertFalse(CardUtils.isLuhnValid(line, 24, 16));
+        assertFalse(CardUtils.isLuhnValid(line, 41, 16));
+        assertFalse(CardUtils.isLuhnValid(line, 7, 0));
+    }
+
+    private static String card(LoteFileParser parser) {
+        byte[] field = new byte[LoteFileParser.MAX_CARD_LENGTH];
+        parser.copyCard(field, 0);
+        return new String(field, 0, parser.cardLength(), StandardCharsets.US_ASCII);
+    }
+
+    // Hands out a few bytes per read, so lines straddle buffer refills
+    private static InputStream trickle(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 5));
+            }
+        };
+    }
+}
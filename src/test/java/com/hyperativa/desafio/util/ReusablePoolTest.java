@@ -0,0 +1,64 @@
+package com.hyperativa.desafio.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class ReusablePoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final ReusablePool<Object> pool = new ReusablePool<>(() -> {
+        created.incrementAndGet();
+        return new Object();
+    }, 1);
+
+    @Test
+    void acquire_ShouldKeepOneObjectPerPlatformThread() {
+        Object first = pool.acquire();
+        pool.release(first);
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, created.get());
+        assertEquals(0, pool.pooledSize());
+    }
+
+    @Test
+    void acquire_ShouldReuseReleasedObjects_AcrossVirtualThreads() throws Exception {
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+
+        Thread.ofVirtual().start(() -> {
+            first.set(pool.acquire());
+            pool.release(first.get());
+        }).join();
+        Thread.ofVirtual().start(() -> {
+            second.set(pool.acquire());
+            pool.release(second.get());
+        }).join();
+
+        assertSame(first.get(), second.get());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void release_ShouldDropObjects_WhenPoolIsFull() throws Exception {
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+
+        Thread.ofVirtual().start(() -> {
+            first.set(pool.acquire());
+            second.set(pool.acquire());
+            pool.release(first.get());
+            pool.release(second.get());
+        }).join();
+
+        assertNotSame(first.get(), second.get());
+        assertEquals(2, created.get());
+        assertEquals(1, pool.pooledSize());
+    }
+}